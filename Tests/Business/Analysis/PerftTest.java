@@ -0,0 +1,65 @@
+package Business.Analysis;
+
+import Business.Boards.TwoPlayerChessBoard;
+import Business.Engine.TranspositionTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+
+    @Test
+    void referencePositionsTest() {
+        // the deeper counts take seconds, they are left for the suite tool
+        assertEquals(0, PerftSuite.run(3, new PrintStream(OutputStream.nullOutputStream())));
+    }
+
+    @Test
+    void divideTest() {
+        Perft perft = new Perft(new TwoPlayerChessBoard());
+        Map<String, Long> counts = perft.divide(3);
+        assertEquals(20, counts.size());
+        assertEquals(600L, counts.get("e2e4"));
+        assertEquals(perft.perft(3), counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void parallelPerftTest() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // a split depth of 2 makes tasks on every level above the last moves
+            PerftSuite.ReferencePosition kiwipete = PerftSuite.POSITIONS.get(1);
+            TwoPlayerChessBoard board = kiwipete.board();
+            String before = board.toString();
+            assertEquals(kiwipete.expected[2], new ParallelPerft(pool, 2).perft(board, 3));
+            assertEquals(before, board.toString());
+            assertEquals(197281, new ParallelPerft(pool).perft(new TwoPlayerChessBoard(), 4));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void perftWithTableTest() {
+        // a tiny table, so entries are replaced all the time and the counts must still be right
+        TranspositionTable table = new TranspositionTable(1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (PerftSuite.ReferencePosition position : PerftSuite.POSITIONS) {
+                TwoPlayerChessBoard board = position.board();
+                assertEquals(position.expected[2], new Perft(board, table).perft(3));
+                if (position.expected.length > 3)
+                    assertEquals(position.expected[3], new ParallelPerft(pool, 3, table).perft(board, 4));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(table.getHits() > 0);
+        assertTrue(table.getCollisions() > 0);
+    }
+}
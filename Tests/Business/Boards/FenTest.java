@@ -0,0 +1,65 @@
+package Business.Boards;
+
+import Business.Color;
+import Business.Place;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenTest {
+
+    @Test
+    void readAndWriteTest() {
+        TwoPlayerChessBoard start = Fen.parse(Fen.START);
+        assertEquals(new TwoPlayerChessBoard().hash(), start.hash());
+        assertEquals(new TwoPlayerChessBoard().toString(), start.toString());
+        assertEquals(Fen.START, Fen.toFen(start));
+
+        // the counters go on with the moves, the en passant square is read and written as "-"
+        start.moveAPiece(Place.getPlace(6, 4), Place.getPlace(4, 4), () -> 'Q');
+        start.moveAPiece(Place.getPlace(0, 6), Place.getPlace(2, 5), () -> 'Q');
+        start.moveAPiece(Place.getPlace(7, 6), Place.getPlace(5, 5), () -> 'Q');
+        String fen = "rnbqkb1r/pppppppp/5n2/8/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 2 2";
+        assertEquals(fen, Fen.toFen(start));
+        assertEquals(fen, Fen.toFen(Fen.parse("rnbqkb1r/pppppppp/5n2/8/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq e3 2 2")));
+        assertEquals(start.hash(), Fen.parse(fen).hash());
+
+        // the rights that are not in the FEN are lost, and the counters can be missing
+        TwoPlayerChessBoard board = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w Kq -");
+        assertEquals(TwoPlayerChessBoard.WHITE_KING_SIDE | TwoPlayerChessBoard.BLACK_QUEEN_SIDE, board.getCastlingRights());
+        assertEquals("r3k2r/8/8/8/8/8/8/R3K2R w Kq - 0 1", Fen.toFen(board));
+
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        Fen.write(board, buffer);
+        buffer.flip();
+        TwoPlayerChessBoard fromBytes = Fen.parse(buffer);
+        assertEquals(board.hash(), fromBytes.hash());
+        assertFalse(buffer.hasRemaining());
+        assertEquals(Color.White, fromBytes.getSideToMove());
+
+        assertThrows(RuntimeException.class, () -> Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"));
+        assertThrows(RuntimeException.class, () -> Fen.parse("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        assertThrows(RuntimeException.class, () -> Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"));
+    }
+
+    @Test
+    void forEachTest(@TempDir Path directory) throws IOException {
+        List<String> fens = List.of(Fen.START, "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        Path file = directory.resolve("positions.fen");
+        Files.writeString(file, fens.get(0) + "\n\n" + fens.get(1) + " ;D1 14\n" + fens.get(2), StandardCharsets.US_ASCII);
+
+        List<String> read = new ArrayList<>();
+        assertEquals(3, Fen.forEach(file, board -> read.add(Fen.toFen(board))));
+        assertEquals(fens, read);
+    }
+}
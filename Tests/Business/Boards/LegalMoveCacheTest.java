@@ -0,0 +1,72 @@
+package Business.Boards;
+
+import Business.Color;
+import Business.Place;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegalMoveCacheTest {
+
+    @Test
+    void legalMovesTest() {
+        LegalMoveCache cache = new LegalMoveCache(64);
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard();
+        MoveList moves = new MoveList();
+        assertEquals(20, cache.legalMoves(board, moves));
+        assertEquals(1, cache.getMisses());
+
+        // another game in the same position is answered from the cache
+        MoveList cached = new MoveList();
+        assertEquals(20, cache.legalMoves(new TwoPlayerChessBoard(), cached));
+        MoveList generated = new MoveList();
+        board.getMoveGenerator().generate(Color.White, generated);
+        assertEquals(generated.toString(), cached.toString());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+
+        // the same pieces with the other side to move is another position
+        board.moveAPiece(Place.getPlace(7, 1), Place.getPlace(5, 2), () -> 'Q');
+        board.moveAPiece(Place.getPlace(0, 1), Place.getPlace(2, 2), () -> 'Q');
+        board.moveAPiece(Place.getPlace(5, 2), Place.getPlace(7, 1), () -> 'Q');
+        assertEquals(Color.Black, board.getSideToMove());
+        moves.clear();
+        cache.legalMoves(board, moves);
+        assertEquals(Color.Black, board.getPieceInPlace(Bitboards.toPlace(Move.from(moves.get(0)))).getColor());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1.0 / 3, cache.hitRate());
+    }
+
+    @Test
+    void evictionTest() {
+        LegalMoveCache cache = new LegalMoveCache(1); // one position in every stripe
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard();
+        MoveList moves = new MoveList();
+        cache.legalMoves(board, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            TwoPlayerChessBoard next = new TwoPlayerChessBoard(board);
+            next.moveAPiece(moves.get(i));
+            cache.legalMoves(next, new MoveList());
+        }
+        // 21 positions in 16 places, a position is thrown away only from a full stripe
+        assertTrue(cache.size() <= cache.capacity());
+        assertEquals(21 - cache.size(), cache.getEvictions());
+        assertEquals(21, cache.getMisses());
+
+        // the positions that are kept are still found after the others were taken out of the index
+        long hits = cache.getHits();
+        for (int i = 0; i < moves.size(); i++) {
+            TwoPlayerChessBoard next = new TwoPlayerChessBoard(board);
+            next.moveAPiece(moves.get(i));
+            MoveList cached = new MoveList(), generated = new MoveList();
+            cache.legalMoves(next, cached);
+            next.getMoveGenerator().generate(next.getSideToMove(), generated);
+            assertEquals(generated.toString(), cached.toString());
+        }
+        assertTrue(cache.getHits() > hits);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+}
@@ -2,6 +2,7 @@ package Business.Boards;
 
 import Business.ChessPieces.*;
 import Business.Color;
+import Business.GameStatus;
 import Business.Place;
 import org.junit.jupiter.api.Test;
 
@@ -139,6 +140,105 @@ class TwoPlayerChessBoardTest {
         assertTrue(board.isInPat(Color.Black));
     }
 
+    @Test
+    void statusTest() {
+        board = new TwoPlayerChessBoard();
+        assertEquals(GameStatus.Ongoing, board.status(Color.White));
+        board = new TwoPlayerChessBoard(table9);
+        assertEquals(GameStatus.Checkmate, board.status(Color.Black));
+        board = new TwoPlayerChessBoard(
+                "----k---\n" +
+                emptyLine +
+                "--b-----\n" +
+                emptyLine +
+                emptyLine +
+                "-----B--\n" +
+                emptyLine +
+                "----K---");
+        assertEquals(GameStatus.InsufficientMaterial, board.status(Color.White)); // both bishops are on light squares
+        board.moveAPiece(Place.getPlace(5, 5), Place.getPlace(4, 5), () -> 'Q');
+        assertEquals(GameStatus.Ongoing, board.status(Color.Black));
+    }
+
+    @Test
+    void drawRulesTest() {
+        // the knights go out and back twice, the start position is on the board for the third time
+        board = new TwoPlayerChessBoard();
+        int[][] moves = {{7, 6, 5, 5}, {0, 6, 2, 5}, {5, 5, 7, 6}, {2, 5, 0, 6}};
+        for (int round = 0; round < 2; round++) {
+            for (int[] move : moves) {
+                assertEquals(GameStatus.Ongoing, board.status(board.getSideToMove()));
+                board.moveAPiece(Place.getPlace(move[0], move[1]), Place.getPlace(move[2], move[3]), () -> 'Q');
+            }
+            assertTrue(board.isRepetition());
+            assertEquals(round + 1, board.countRepetitions());
+        }
+        assertEquals(GameStatus.ThreefoldRepetition, board.status(Color.White));
+
+        // a pawn move starts the window again
+        board.moveAPiece(Place.getPlace(6, 4), Place.getPlace(4, 4), () -> 'Q');
+        assertEquals(0, board.getHalfmoveClock());
+        assertFalse(board.isRepetition());
+
+        // the move that ends the fifty moves
+        board = Fen.parse("4k3/8/8/8/8/8/8/R3K3 w - - 99 80");
+        assertEquals(GameStatus.Ongoing, board.status(Color.White));
+        board.moveAPiece(Place.getPlace(7, 0), Place.getPlace(6, 0), () -> 'Q');
+        assertTrue(board.isFiftyMovesDraw());
+        assertEquals(GameStatus.FiftyMoves, board.status(Color.Black));
+        MoveUndo undo = new MoveUndo();
+        board.makeMove(Move.of(Bitboards.square(0, 4), Bitboards.square(0, 3)), undo);
+        board.unmakeMove(undo);
+        assertEquals(100, board.getHalfmoveClock());
+    }
+
+    @Test
+    void attackMapTest() {
+        // the map is updated with every move, and must always be the same as a map made from scratch
+        board = new TwoPlayerChessBoard(
+                "r---k--r\n" +
+                "-P---ppp\n" +
+                emptyLine +
+                "---q----\n" +
+                "--B-----\n" +
+                emptyLine +
+                "-----PPP\n" +
+                "R---K--R");
+        assertEquals(2, board.countAttackers(Place.getPlace(0, 0), Color.White)); // the rook on a1 and the pawn on b7
+        int[][] moves = {{7, 4, 7, 6}, {3, 3, 6, 3}, {4, 2, 1, 5}, {0, 4, 1, 5}, {1, 1, 0, 0}, {6, 3, 7, 3}, {7, 5, 7, 3}, {1, 5, 2, 5}, {7, 3, 7, 1}};
+        for (int[] move : moves) {
+            board.moveAPiece(Place.getPlace(move[0], move[1]), Place.getPlace(move[2], move[3]), () -> 'Q');
+            assertAttackMapUpToDate(board);
+        }
+        assertEquals(2, board.countAttackers(Place.getPlace(0, 1), Color.White)); // the new queen on a8 and the rook on b1
+        assertFalse(board.isInCheck(Color.Black));
+
+        // like the search: the replies are made and taken back with no question, the map gets all the changes at once
+        MoveList legalMoves = new MoveList(), replies = new MoveList();
+        MoveUndo undo = new MoveUndo(), replyUndo = new MoveUndo();
+        board.getMoveGenerator().generate(board.getSideToMove(), legalMoves);
+        for (int i = 0; i < legalMoves.size(); i++) {
+            board.makeMove(legalMoves.get(i), undo);
+            assertAttackMapUpToDate(board);
+            replies.clear();
+            board.getMoveGenerator().generate(board.getSideToMove(), replies);
+            for (int j = 0; j < replies.size(); j++) {
+                board.makeMove(replies.get(j), replyUndo);
+                board.unmakeMove(replyUndo);
+            }
+            board.unmakeMove(undo);
+            assertAttackMapUpToDate(board);
+        }
+    }
+
+    private static void assertAttackMapUpToDate(TwoPlayerChessBoard board) {
+        AttackMap fresh = new AttackMap(board);
+        for (int square = 0; square < 64; square++) {
+            for (Color color : new Color[]{Color.White, Color.Black})
+                assertEquals(fresh.attackers(color, square), board.attackMap().attackers(color, square));
+        }
+    }
+
     @Test
     void parseStringConstructorTest() {
         TwoPlayerChessBoard board1 = new TwoPlayerChessBoard(table1);
@@ -162,6 +262,23 @@ class TwoPlayerChessBoardTest {
         assertTrue(board3.getPieceInPlace(4,2).getClass().equals(Pawn.class) && board3.getPieceInPlace(4,2).getColor()==Color.White);
     }
 
+    @Test
+    void pieceTest() {
+        // one shared piece of every color and type, found by the type
+        board = new TwoPlayerChessBoard();
+        ChessPiece knight = board.getPieceInPlace(7, 1);
+        assertSame(ChessPiece.of(Color.White, PieceType.Knight), knight);
+        assertSame(knight, new TwoPlayerChessBoard(board).getPieceInPlace(7, 1));
+        assertEquals('H', knight.getLetter());
+        assertEquals('q', ChessPiece.of(Color.Black, PieceType.Queen).getLetter());
+
+        assertTrue(knight.isLegalPieceMove(Place.getPlace(7, 1), Place.getPlace(5, 2), board));
+        assertFalse(knight.isLegalPieceMove(Place.getPlace(7, 1), Place.getPlace(6, 3), board));
+        assertTrue(board.getPieceInPlace(6, 4).isLegalPieceMove(Place.getPlace(6, 4), Place.getPlace(4, 4), board));
+        assertFalse(board.getPieceInPlace(7, 3).isLegalPieceMove(Place.getPlace(7, 3), Place.getPlace(5, 3), board));
+        assertEquals(2, knight.getMovingOptions(Place.getPlace(7, 1), board).size());
+    }
+
 
     @Test
     public void usingOpponentPiece() {
@@ -289,6 +406,173 @@ class TwoPlayerChessBoardTest {
 
     }
 
+    @Test
+    public void movingOptionsTest() {
+        // the black rook is pinned to its king by the white queen, it can only move on the line between them
+        board = new TwoPlayerChessBoard(
+                "----k---\n" +
+                "----r---\n" +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                "----Q--K");
+        Set<Place> expected = new HashSet<>();
+        for (int row = 2; row < 8; row++)
+            expected.add(Place.getPlace(row, 4));
+        assertEquals(expected, new HashSet<>(board.calculateMovingOptions(Place.getPlace(1, 4))));
+
+        // in check, only the moves that stop the check are allowed
+        board = new TwoPlayerChessBoard(table9);
+        board.moveAPiece(Place.getPlace(1,0),Place.getPlace(2,0),()->'Q');
+        assertEquals(Set.of(Place.getPlace(1,3), Place.getPlace(1,4), Place.getPlace(1,5)), new HashSet<>(board.calculateMovingOptions(Place.getPlace(0,4))));
+        assertTrue(board.calculateMovingOptions(Place.getPlace(0,7)).isEmpty());
+    }
+
+    @Test
+    public void moveListTest() {
+        board = new TwoPlayerChessBoard(
+                "r---k---\n" +
+                "-P------\n" +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                "----P---\n" +
+                "----K--R", Color.White);
+        MoveList moves = new MoveList();
+        board.getMoveGenerator().generate(Color.White, moves);
+        assertEquals(Move.of(Bitboards.square(6, 4), Bitboards.square(4, 4)) | Move.DOUBLE_PUSH, moves.find(Bitboards.square(6, 4), Bitboards.square(4, 4), Move.QUEEN));
+        assertEquals(Move.of(Bitboards.square(7, 4), Bitboards.square(7, 6)) | Move.CASTLE, moves.find(Bitboards.square(7, 4), Bitboards.square(7, 6), Move.QUEEN));
+        // four promotions straight and four by eating the rook
+        int promotions = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.promotion(moves.get(i)) != Move.NO_PROMOTION)
+                promotions++;
+        }
+        assertEquals(8, promotions);
+        int capture = moves.find(Bitboards.square(1, 1), Bitboards.square(0, 0), Move.KNIGHT);
+        assertTrue(Move.isCapture(capture));
+        assertTrue(Move.isSame(Move.of(Bitboards.square(1, 1), Bitboards.square(0, 0), Move.KNIGHT), capture));
+
+        // the moves of one piece, the same as the places of "calculateMovingOptions"
+        moves.clear();
+        assertEquals(board.calculateMovingOptions(Place.getPlace(7, 7)).size(), board.getMoveGenerator().generate(Bitboards.square(7, 7), moves));
+
+        MoveListPool pool = new MoveListPool(2);
+        pool.get(3).add(Move.NONE);
+        assertTrue(pool.get(3).isEmpty());
+    }
+
+    @Test
+    public void makeAndUnmakeMoveTest() {
+        // castling
+        board = new TwoPlayerChessBoard(table8);
+        String before = board.toString();
+        int rights = board.getCastlingRights();
+        MoveUndo undo = new MoveUndo();
+        board.makeMove(Place.getPlace(7,4),Place.getPlace(7,6),()->'Q',undo);
+        assertTrue(board.getPieceInPlace(7,5) instanceof Rook);
+        assertEquals(0, board.getCastlingRights() & (TwoPlayerChessBoard.WHITE_KING_SIDE | TwoPlayerChessBoard.WHITE_QUEEN_SIDE));
+        board.unmakeMove(undo);
+        assertEquals(before, board.toString());
+        assertEquals(rights, board.getCastlingRights());
+        assertTrue(board.isLegalMove(Place.getPlace(7,4),Place.getPlace(7,6),Color.White));
+
+        // promotion with a capture
+        board = new TwoPlayerChessBoard(table3);
+        before = board.toString();
+        board.makeMove(Place.getPlace(1,0),Place.getPlace(0,0),()->'R',undo);
+        assertTrue(board.getPieceInPlace(0,0) instanceof Rook);
+        board.unmakeMove(undo);
+        assertEquals(before, board.toString());
+        assertTrue(board.getPieceInPlace(1,0) instanceof Pawn);
+
+        board.makeMove(Place.getPlace(2,0),Place.getPlace(2,6),()->'Q',undo);
+        board.unmakeMove(undo);
+        assertEquals(before, board.toString());
+        assertTrue(board.getPieceInPlace(2,6) instanceof Bishop && board.getPieceInPlace(2,6).getColor() == Color.White);
+        rights = board.getCastlingRights();
+        board.makeMove(Place.getPlace(0,7),Place.getPlace(0,3),()->'Q',undo);
+        board.unmakeMove(undo);
+        assertEquals(rights, board.getCastlingRights());
+    }
+
+    @Test
+    public void hashTest() {
+        // the same position by a different move order gets the same hash
+        board = new TwoPlayerChessBoard();
+        TwoPlayerChessBoard other = new TwoPlayerChessBoard();
+        assertEquals(board.hash(), other.hash());
+        board.moveAPiece(Place.getPlace(6,4),Place.getPlace(4,4),()->'Q');
+        board.moveAPiece(Place.getPlace(0,1),Place.getPlace(2,2),()->'Q');
+        board.moveAPiece(Place.getPlace(7,6),Place.getPlace(5,5),()->'Q');
+        other.moveAPiece(Place.getPlace(7,6),Place.getPlace(5,5),()->'Q');
+        other.moveAPiece(Place.getPlace(0,1),Place.getPlace(2,2),()->'Q');
+        other.moveAPiece(Place.getPlace(6,4),Place.getPlace(4,4),()->'Q');
+        assertEquals(board.hash(), other.hash());
+        assertNotEquals(board.hash(), new TwoPlayerChessBoard(table8, Color.Black).hash());
+
+        // the side to move is in the hash
+        assertNotEquals(new TwoPlayerChessBoard(table8).hash(), new TwoPlayerChessBoard(table8, Color.Black).hash());
+
+        // the castling rights are in the hash, the king goes back to its place but cannot castle anymore
+        board = new TwoPlayerChessBoard(table8);
+        long start = board.hash();
+        board.moveAPiece(Place.getPlace(7,4),Place.getPlace(7,5),()->'Q');
+        board.moveAPiece(Place.getPlace(0,4),Place.getPlace(0,5),()->'Q');
+        board.moveAPiece(Place.getPlace(7,5),Place.getPlace(7,4),()->'Q');
+        board.moveAPiece(Place.getPlace(0,5),Place.getPlace(0,4),()->'Q');
+        assertEquals(0, board.getCastlingRights());
+        assertNotEquals(start, board.hash());
+
+        // taking moves back gives the hash back, also after castling and a promotion
+        board = new TwoPlayerChessBoard(table8);
+        start = board.hash();
+        MoveUndo undo = new MoveUndo();
+        board.makeMove(Place.getPlace(7,4),Place.getPlace(7,6),()->'Q',undo);
+        assertEquals(TwoPlayerChessBoard.BLACK_KING_SIDE | TwoPlayerChessBoard.BLACK_QUEEN_SIDE, board.getCastlingRights());
+        board.unmakeMove(undo);
+        assertEquals(start, board.hash());
+        board = new TwoPlayerChessBoard(table3);
+        start = board.hash();
+        board.makeMove(Place.getPlace(1,0),Place.getPlace(0,0),()->'R',undo);
+        assertNotEquals(start, board.hash());
+        board.unmakeMove(undo);
+        assertEquals(start, board.hash());
+    }
+
+    @Test
+    public void evaluationScoresTest() {
+        // after castling, a capture and a promotion, the scores that were updated on every move are the same as the
+        // scores of a new board with the same pieces
+        board = new TwoPlayerChessBoard(table8);
+        board.moveAPiece(Place.getPlace(7,4),Place.getPlace(7,6),()->'Q');
+        board.moveAPiece(Place.getPlace(0,0),Place.getPlace(7,0),()->'Q');
+        assertScoresAsNewBoard(board);
+
+        board = new TwoPlayerChessBoard(table3);
+        int phase = board.getPhase();
+        MoveUndo undo = new MoveUndo();
+        board.makeMove(Place.getPlace(1,0),Place.getPlace(0,0),()->'Q',undo);
+        assertScoresAsNewBoard(board);
+        assertEquals(phase + 4, board.getPhase()); // a queen came in
+        board.unmakeMove(undo);
+        assertScoresAsNewBoard(board);
+        assertEquals(0, new TwoPlayerChessBoard().getMiddlegameScore());
+    }
+
+    private void assertScoresAsNewBoard(TwoPlayerChessBoard board) {
+        String rows = board.toString().replaceAll("(.{8})(?!$)", "$1\n");
+        TwoPlayerChessBoard newBoard = new TwoPlayerChessBoard(rows);
+        assertEquals(newBoard.getMiddlegameScore(), board.getMiddlegameScore());
+        assertEquals(newBoard.getEndgameScore(), board.getEndgameScore());
+        assertEquals(newBoard.getPhase(), board.getPhase());
+        assertEquals(newBoard.getMaterial(Color.White), board.getMaterial(Color.White));
+        assertEquals(newBoard.getMaterial(Color.Black), board.getMaterial(Color.Black));
+    }
+
     @Test
     public void queenMovementTests() {
         board = new TwoPlayerChessBoard(table9);
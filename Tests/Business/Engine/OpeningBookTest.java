@@ -0,0 +1,66 @@
+package Business.Engine;
+
+import Business.Boards.Bitboards;
+import Business.Boards.Move;
+import Business.Boards.MoveUndo;
+import Business.Boards.TwoPlayerChessBoard;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    private static final String PGN =
+            "[Event \"a\"]\n[Result \"1-0\"]\n\n1. e4 e5 2. Nf3 {a comment} Nc6 (2... d6 3. d4) 3. Bb5 a6 1-0\n\n" +
+            "[Event \"b\"]\n[Result \"1/2-1/2\"]\n\n1. e4 c5 2. Nf3 d6 $1 3. d4 cxd4 1/2-1/2\n\n" +
+            "[Event \"c\"]\n[Result \"0-1\"]\n\n1. d4 d5 2. c4 e6 0-1\n";
+
+    @Test
+    void bookTest(@TempDir Path directory) throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(6);
+        builder.addGames(PGN);
+        assertEquals(3, builder.getGames());
+        Path path = directory.resolve("book.bin");
+        builder.write(path);
+        OpeningBook book = OpeningBook.open(path);
+
+        // e4 was played twice, it won once and drew once, d4 lost
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard();
+        int e4 = Move.of(Bitboards.square(6, 4), Bitboards.square(4, 4));
+        assertEquals(e4, book.bestMove(board.hash()));
+        assertEquals(e4, book.pickMove(board.hash()));
+
+        // after e4, e5 lost and c5 drew
+        board.makeMove(Bitboards.toPlace(Move.from(e4)), Bitboards.toPlace(Move.to(e4)), Move.promotionLetter(e4), new MoveUndo());
+        int c5 = Move.of(Bitboards.square(1, 2), Bitboards.square(3, 2));
+        assertEquals(c5, book.bestMove(board.hash()));
+        assertEquals(c5, book.pickMove(board.hash()));
+        assertEquals(Move.NONE, book.bestMove(board.hash() ^ 1));
+
+        // the moves of the lost sides are not in the book, and neither are the variation and the moves after the 6th ply
+        assertEquals(10, book.size());
+    }
+
+    @Test
+    void sanTest() {
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(
+                "----k--r\n" +
+                "-P------\n" +
+                "--------\n" +
+                "--------\n" +
+                "--------\n" +
+                "--------\n" +
+                "--------\n" +
+                "R---K--R");
+        assertEquals(Move.of(Bitboards.square(7, 4), Bitboards.square(7, 6)), OpeningBookBuilder.parseSan(board, "O-O"));
+        assertEquals(Move.of(Bitboards.square(7, 4), Bitboards.square(7, 2)), OpeningBookBuilder.parseSan(board, "O-O-O+"));
+        assertEquals(Move.of(Bitboards.square(1, 1), Bitboards.square(0, 1), Move.KNIGHT), OpeningBookBuilder.parseSan(board, "b8=N"));
+        assertEquals(Move.of(Bitboards.square(7, 7), Bitboards.square(0, 7)), OpeningBookBuilder.parseSan(board, "Rxh8"));
+        assertEquals(Move.of(Bitboards.square(7, 0), Bitboards.square(4, 0)), OpeningBookBuilder.parseSan(board, "Ra4"));
+        assertThrows(RuntimeException.class, () -> OpeningBookBuilder.parseSan(board, "Rd2")); // no rook can go there
+    }
+}
@@ -0,0 +1,169 @@
+package Business.Engine;
+
+import Business.Boards.Bitboards;
+import Business.Boards.Move;
+import Business.Boards.MoveList;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.Color;
+import Business.GameManager;
+import Business.Place;
+import org.junit.jupiter.api.Test;
+import srv.api.UserMessageReceiver;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+    private final String emptyLine = "--------\n";
+
+    @Test
+    void mateInOneTest() {
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(
+                "------k-\n" +
+                "-----ppp\n" +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                "R-----K-");
+        String before = board.toString();
+        SearchResult result = new Search(board, new TranspositionTable(1)).search(4, 10_000);
+        assertEquals(Move.of(Bitboards.square(7, 0), Bitboards.square(0, 0)), result.getMove());
+        assertEquals(Search.MATE - 1, result.getScore());
+        assertEquals(before, board.toString());
+    }
+
+    @Test
+    void winMaterialTest() {
+        // the black queen is not protected, the white knight takes it
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(
+                "----k---\n" +
+                emptyLine +
+                "---q----\n" +
+                emptyLine +
+                "----H---\n" +
+                emptyLine +
+                emptyLine +
+                "----K---");
+        SearchResult result = new Search(board, new TranspositionTable(1)).search(5, 10_000);
+        assertEquals(Move.of(Bitboards.square(4, 4), Bitboards.square(2, 3)), result.getMove());
+        assertTrue(result.getScore() > 2 * Evaluator.PIECE_VALUES[0]); // a knight up
+    }
+
+    @Test
+    void movePickerOrderTest() {
+        // the white pawn and knight can both take the black queen and the black pawn
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(
+                "----k---\n" +
+                emptyLine +
+                "---q-p--\n" +
+                "----P---\n" +
+                "----H---\n" +
+                emptyLine +
+                emptyLine +
+                "----K---");
+        int hashMove = Move.of(Bitboards.square(7, 4), Bitboards.square(7, 5));
+        int killer = Move.of(Bitboards.square(4, 4), Bitboards.square(5, 2));
+        MovePicker picker = new MovePicker(board, new int[2][64][64]);
+        picker.reset(hashMove, killer, Move.NONE);
+        assertEquals(hashMove, picker.next());
+        assertEquals(Move.of(Bitboards.square(3, 4), Bitboards.square(2, 3)), picker.next()); // pawn takes queen
+        assertEquals(Move.of(Bitboards.square(4, 4), Bitboards.square(2, 3)), picker.next()); // knight takes queen
+        assertEquals(Move.of(Bitboards.square(3, 4), Bitboards.square(2, 5)), picker.next()); // pawn takes pawn
+        assertEquals(Move.of(Bitboards.square(4, 4), Bitboards.square(2, 5)), picker.next()); // knight takes pawn
+        assertEquals(killer, picker.next());
+
+        // all the legal moves come once
+        long[] destinations = new long[64];
+        long pieces = board.getMoveGenerator().generate(Color.White, destinations);
+        int legalMoves = 0;
+        for (; pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces))
+            legalMoves += Long.bitCount(destinations[Bitboards.firstSquare(pieces)]);
+        Set<Integer> moves = new HashSet<>();
+        picker.reset(hashMove, killer, Move.NONE);
+        for (int move; (move = picker.next()) != Move.NONE; )
+            assertTrue(moves.add(move));
+        assertEquals(legalMoves, moves.size());
+    }
+
+    @Test
+    void staticExchangeTest() {
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(
+                "r---k---\n" +
+                emptyLine +
+                "p-----p-\n" +
+                "-------p\n" +
+                emptyLine +
+                "R-------\n" +
+                emptyLine +
+                "R---K--R");
+        StaticExchange exchange = new StaticExchange(board);
+        // the rook behind the first one takes back the black rook (x-ray)
+        assertEquals(Evaluator.PIECE_VALUES[0], exchange.evaluate(Move.of(Bitboards.square(5, 0), Bitboards.square(2, 0))));
+        // the black pawn is protected by a pawn
+        assertEquals(Evaluator.PIECE_VALUES[0] - Evaluator.PIECE_VALUES[3], exchange.evaluate(Move.of(Bitboards.square(7, 7), Bitboards.square(3, 7))));
+    }
+
+    @Test
+    void lazySmpTest() {
+        // one thread is the plain search, so it must give the same result every time
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard();
+        SearchResult first = new LazySmpSearch(board, new TranspositionTable(1), 1).search(4, Long.MAX_VALUE);
+        SearchResult second = new LazySmpSearch(board, new TranspositionTable(1), 1).search(4, Long.MAX_VALUE);
+        assertEquals(first.getMove(), second.getMove());
+        assertEquals(first.getNodes(), second.getNodes());
+
+        // with helpers the mate is found too, and the board is not changed
+        board = new TwoPlayerChessBoard(
+                "------k-\n" +
+                "-----ppp\n" +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                "R-----K-");
+        String before = board.toString();
+        SearchResult result = new LazySmpSearch(board, new TranspositionTable(1), 4).search(4, 10_000);
+        assertEquals(Search.MATE - 1, result.getScore());
+        assertEquals(before, board.toString());
+    }
+
+    @Test
+    void botAnswersTest() throws InterruptedException {
+        UserMessageReceiver user = new UserMessageReceiver() {
+            public <K> void receiveCollection(Collection<K> calculateMovingOptions, short opcode) {
+            }
+
+            public void receiveMoves(MoveList moves) {
+            }
+
+            public void receiveMsg(String s) {
+            }
+
+            public void receiveBoardAsString(String boardString) {
+            }
+
+            public void gameFinishCallback() {
+            }
+
+            public void receiveColor(Color color) {
+            }
+        };
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard();
+        GameManager gameManager = new GameManager(board, user);
+        gameManager.start(new BotPlayer(board, gameManager, 100, 3));
+        gameManager.userClick(Place.getPlace(6, 4), user);
+        gameManager.userClick(Place.getPlace(4, 4), user);
+
+        // the bot plays on its own thread, wait for the turn to come back
+        for (int i = 0; i < 100 && board.getSideToMove() == Color.Black; i++)
+            Thread.sleep(50);
+        assertEquals(Color.White, board.getSideToMove());
+        assertEquals(15, Long.bitCount(board.occupancy(Color.Black) & 0xFFFFL)); // one black piece left the first two rows
+    }
+}
@@ -0,0 +1,83 @@
+package Business.Engine;
+
+import Business.Boards.TwoPlayerChessBoard;
+import Business.Color;
+import Business.Engine.Tablebases.Ending;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebasesTest {
+    private static final String emptyLine = "--------\n";
+    private static byte[][] tables;
+    private static Tablebases tablebases;
+
+    @BeforeAll
+    static void generate() {
+        // all but KBNK, which takes seconds
+        tables = new byte[Ending.values().length][];
+        for (Ending ending : new Ending[]{Ending.KQK, Ending.KRK, Ending.KPK})
+            tables[ending.ordinal()] = new TablebaseGenerator(ending, tables).generate();
+        tablebases = new Tablebases(tables);
+    }
+
+    @Test
+    void longestMatesTest() {
+        // the known longest mates: 10 moves with a queen, 16 with a rook, and 28 from a pawn
+        assertEquals(19, longestMate(Ending.KQK));
+        assertEquals(31, longestMate(Ending.KRK));
+        assertEquals(55, longestMate(Ending.KPK));
+    }
+
+    @Test
+    void probeTest() {
+        // Qh7 or Qg7 mates
+        String mateInOne = "-------k\n" +
+                "Q-------\n" +
+                "------K-\n" +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                "--------";
+        assertEquals(Search.MATE - 1, tablebases.probe(new TwoPlayerChessBoard(mateInOne, Color.White)));
+        // the same with the colors swapped and the board mirrored
+        TwoPlayerChessBoard blackMateInOne = new TwoPlayerChessBoard(
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                "------k-\n" +
+                "q-------\n" +
+                "-------K", Color.Black);
+        assertEquals(Search.MATE - 1, tablebases.probe(blackMateInOne));
+        // after Qh7 black is mated
+        assertEquals(-Search.MATE, tablebases.probe(new TwoPlayerChessBoard(mateInOne.replace("Q-------\n", "-------Q\n"), Color.Black)));
+
+        // the black king gets to the corner of the h pawn first
+        TwoPlayerChessBoard draw = new TwoPlayerChessBoard(
+                "-------k\n" +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                emptyLine +
+                "-------P\n" +
+                "K-------", Color.White);
+        assertEquals(0, tablebases.probe(draw));
+
+        // KBNK is not generated, and a board with more pieces is not in the tables
+        assertEquals(Tablebases.NOT_FOUND, tablebases.probe(new TwoPlayerChessBoard()));
+        assertEquals(Tablebases.NOT_FOUND, tablebases.probe(new TwoPlayerChessBoard(
+                "-------k\n" + emptyLine + emptyLine + emptyLine + emptyLine + emptyLine + "------BH\n" + "K-------", Color.White)));
+    }
+
+    private static int longestMate(Ending ending) {
+        int longest = 0;
+        for (byte value : tables[ending.ordinal()])
+            longest = Math.max(longest, value);
+        return longest;
+    }
+}
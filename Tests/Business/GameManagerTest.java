@@ -0,0 +1,87 @@
+package Business;
+
+import Business.Boards.MoveList;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.ChessPieces.ChessPiece;
+import Business.ChessPieces.PieceType;
+import Business.Engine.BotPlayer;
+import org.junit.jupiter.api.Test;
+import srv.api.UserMessageReceiver;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameManagerTest {
+
+    private final UserMessageReceiver user = new UserMessageReceiver() {
+        public <K> void receiveCollection(Collection<K> calculateMovingOptions, short opcode) {
+        }
+
+        public void receiveMoves(MoveList moves) {
+        }
+
+        public void receiveMsg(String s) {
+        }
+
+        public void receiveBoardAsString(String boardString) {
+        }
+
+        public void gameFinishCallback() {
+        }
+
+        public void receiveColor(Color color) {
+        }
+    };
+
+    @Test
+    void botGameTest() throws InterruptedException {
+        // a bot of depth 1 answers at once, its clicks come on its own thread while the click of the user is still going on
+        for (int game = 0; game < 30; game++) {
+            TwoPlayerChessBoard board = new TwoPlayerChessBoard();
+            GameManager gameManager = new GameManager(board, user);
+            gameManager.start(new BotPlayer(board, gameManager, 100, 1));
+
+            gameManager.userClick(Place.getPlace(6, 4), user); // e2e4
+            gameManager.userClick(Place.getPlace(4, 4), user);
+            waitForTheBot(board);
+            assertEquals(2, board.getFullmoveNumber());
+
+            gameManager.userClick(Place.getPlace(7, 6), user); // g1f3, legal after any answer
+            gameManager.userClick(Place.getPlace(5, 5), user);
+            waitForTheBot(board);
+            assertEquals(3, board.getFullmoveNumber());
+        }
+    }
+
+    @Test
+    void botUnderPromotionTest() throws InterruptedException {
+        // only f2f1 promoting to a knight mates, a queen on f1 does not even give check
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(
+                "k-------\n" +
+                "--------\n" +
+                "--------\n" +
+                "--------\n" +
+                "--------\n" +
+                "------PP\n" +
+                "P---hpPK\n" +
+                "-------B");
+        GameManager gameManager = new GameManager(board, user);
+        gameManager.start(new BotPlayer(board, gameManager, 1000, 3));
+        gameManager.userClick(Place.getPlace(6, 0), user); // a2a3, a move that changes nothing
+        gameManager.userClick(Place.getPlace(5, 0), user);
+        waitForTheBot(board);
+
+        ChessPiece promoted = board.getPieceInPlace(7, 5);
+        assertNotNull(promoted);
+        assertEquals(PieceType.Knight, promoted.getType());
+        assertEquals(Color.Black, promoted.getColor());
+        assertTrue(board.isInCheckMate(Color.White));
+    }
+
+    private static void waitForTheBot(TwoPlayerChessBoard board) throws InterruptedException {
+        for (int i = 0; i < 200 && board.getSideToMove() == Color.Black; i++)
+            Thread.sleep(10);
+        assertEquals(Color.White, board.getSideToMove());
+    }
+}
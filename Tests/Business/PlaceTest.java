@@ -0,0 +1,35 @@
+package Business;
+
+import Business.Place.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaceTest {
+
+    @Test
+    void geometryTest() {
+        Place a8 = Place.getPlace(0, 0);
+        assertEquals(0, a8.getSquare());
+        assertSame(Place.getPlace(63), Place.getPlace(7, 7));
+        assertNull(Place.getPlace(8, 0));
+        assertNull(Place.getPlace(0, -1));
+
+        // leaving the board is null, not an exception
+        assertNull(a8.moveUp());
+        assertNull(a8.move(Direction.LeftDownDiagonal));
+        assertEquals(Place.getPlace(1, 1), a8.move(Direction.RightDownDiagonal));
+
+        assertEquals(List.of(Place.getPlace(1, 1), Place.getPlace(2, 2), Place.getPlace(3, 3), Place.getPlace(4, 4),
+                Place.getPlace(5, 5), Place.getPlace(6, 6), Place.getPlace(7, 7)), Place.getRay(a8, Direction.RightDownDiagonal));
+        assertEquals(2, Place.getRay(a8, Direction.Knight).size());
+
+        assertEquals(Direction.LeftDownDiagonal, Place.findDirection(Place.getPlace(3, 4), Place.getPlace(5, 2)));
+        assertEquals(Direction.Knight, Place.findDirection(Place.getPlace(3, 4), Place.getPlace(5, 5)));
+        assertEquals(Direction.None, Place.findDirection(Place.getPlace(3, 4), Place.getPlace(6, 5)));
+        assertEquals(Direction.None, Place.findDirection(a8, a8));
+        assertThrows(RuntimeException.class, () -> Place.calculateDirection(a8, a8));
+    }
+}
@@ -0,0 +1,143 @@
+package Business.Analysis;
+
+import Business.Boards.MoveList;
+import Business.Boards.MoveUndo;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.Color;
+import Business.Engine.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft that walks the tree on all the cores with a {@link ForkJoinPool}.
+ * Every move of the root, and every move of a deeper position while the subtree under it is still big, becomes a task
+ * with its own copy of the board (a board and its move generator are not thread safe). Small subtrees are counted by a
+ * plain {@link Perft} in the task, so the tasks are big enough to be worth the copy.
+ * The tasks share nothing but the board they were copied from and the {@link TranspositionTable} if one is given (it
+ * needs no locks), the counts are only added when the tasks are joined.
+ * Usage: ParallelPerft "board" [w|b] depth [max threads] [table megabytes], prints the time of every number of threads and how well it scales
+ */
+public class ParallelPerft {
+
+    public static final int DEFAULT_SPLIT_DEPTH = 4;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth; // a subtree of this depth or more is split into tasks, a smaller one is counted in one task
+    private final TranspositionTable table; // shared by all the tasks, or null
+
+    public ParallelPerft(ForkJoinPool pool) {
+        this(pool, DEFAULT_SPLIT_DEPTH, null);
+    }
+
+    public ParallelPerft(ForkJoinPool pool, int splitDepth) {
+        this(pool, splitDepth, null);
+    }
+
+    /**
+     * @param table a table to keep the counts of the subtrees in, shared by all the threads, or null
+     */
+    public ParallelPerft(ForkJoinPool pool, int splitDepth, TranspositionTable table) {
+        this.pool = pool;
+        this.splitDepth = Math.max(2, splitDepth);
+        this.table = table;
+    }
+
+    /**
+     * @param board the board is not changed, every task works on a copy
+     * @return the number of positions reached after {@param depth} moves, like {@link Perft#perft(int)}
+     */
+    public long perft(TwoPlayerChessBoard board, int depth) {
+        if (depth < 2)
+            return new Perft(new TwoPlayerChessBoard(board), table).perft(depth);
+        return pool.invoke(new PerftTask(new TwoPlayerChessBoard(board), depth, true, splitDepth, table));
+    }
+
+    private static class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final TwoPlayerChessBoard board; // owned by this task
+        private final int depth;
+        private final boolean root; // the moves of the root are always split, even when the depth is small
+        private final int splitDepth;
+        private final TranspositionTable table;
+
+        PerftTask(TwoPlayerChessBoard board, int depth, boolean root, int splitDepth, TranspositionTable table) {
+            this.board = board;
+            this.depth = depth;
+            this.root = root;
+            this.splitDepth = splitDepth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth < splitDepth && !root)
+                return new Perft(board, table).perft(depth);
+
+            List<PerftTask> children = new ArrayList<>();
+            MoveList moves = new MoveList();
+            MoveUndo undo = new MoveUndo();
+            board.getMoveGenerator().generate(board.getSideToMove(), moves);
+            for (int i = 0; i < moves.size(); i++) {
+                TwoPlayerChessBoard child = new TwoPlayerChessBoard(board);
+                child.makeMove(moves.get(i), undo);
+                PerftTask task = new PerftTask(child, depth - 1, false, splitDepth, table);
+                task.fork();
+                children.add(task);
+            }
+
+            long count = 0;
+            for (PerftTask child : children)
+                count += child.join();
+            return count;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("usage: ParallelPerft \"board\" [w|b] depth [max threads] [table megabytes]");
+            return;
+        }
+        // the color is optional, the arguments after it are counted from where it would be
+        boolean hasSide = args[1].equals("w") || args[1].equals("b");
+        int next = hasSide ? 2 : 1;
+        if (args.length <= next) {
+            System.out.println("usage: ParallelPerft \"board\" [w|b] depth [max threads] [table megabytes]");
+            return;
+        }
+        Color side = args[1].equals("b") ? Color.Black : Color.White;
+        int depth = Integer.parseInt(args[next]);
+        int maxThreads = args.length > next + 1 ? Integer.parseInt(args[next + 1]) : Runtime.getRuntime().availableProcessors();
+        int megabytes = args.length > next + 2 ? Integer.parseInt(args[next + 2]) : 0;
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(Perft.toBoardString(args[0]), side);
+        new Perft(new TwoPlayerChessBoard(board)).perft(depth); // loads the attack tables and lets the JIT compile the walk, so the first run is not slower than the others
+
+        // the threads are doubled every time, the efficiency is the speedup divided by the threads,
+        // a drop in it shows where the threads start to wait for each other (on memory, the pool or the cache lines)
+        System.out.println("threads  nodes  ms  nodes/second  speedup  efficiency");
+        long singleThreadNanos = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            TranspositionTable table = megabytes > 0 ? new TranspositionTable(megabytes) : null; // a new table, so no run gets the counts of the run before it
+            try {
+                long start = System.nanoTime();
+                long nodes = new ParallelPerft(pool, DEFAULT_SPLIT_DEPTH, table).perft(board, depth);
+                long nanos = System.nanoTime() - start;
+                if (threads == 1)
+                    singleThreadNanos = nanos;
+                double speedup = (double) singleThreadNanos / nanos;
+                System.out.printf("%d  %d  %d  %d  %.2f  %.0f%%%n", threads, nodes, nanos / 1_000_000,
+                        Perft.nodesPerSecond(nodes, nanos), speedup, 100 * speedup / threads);
+                if (table != null)
+                    System.out.println("   table: " + table);
+            } finally {
+                pool.shutdown();
+            }
+            if (threads == maxThreads)
+                break;
+        }
+    }
+}
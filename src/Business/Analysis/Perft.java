@@ -0,0 +1,172 @@
+package Business.Analysis;
+
+import Business.Boards.Bitboards;
+import Business.Boards.Move;
+import Business.Boards.MoveGenerator;
+import Business.Boards.MoveList;
+import Business.Boards.MoveListPool;
+import Business.Boards.MoveUndo;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.ChessPieces.ChessPiece;
+import Business.ChessPieces.PieceType;
+import Business.Color;
+import Business.Engine.TranspositionTable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft counts the positions (leaf nodes) that can be reached from a board in an exact number of moves.
+ * The counts of known positions are published, so a wrong count means a bug in the move generation, and the time it
+ * takes shows how fast the move generation is. "divide" gives the count under every first move, to find which move is wrong.
+ * Every promotion counts as 4 moves, one for every piece the pawn can become.
+ * With a {@link TranspositionTable} the count of every subtree is kept, so a position that is reached again by another
+ * order of moves is not counted again (the table can be shared by many Perft objects on different threads).
+ * Usage: Perft "board" [w|b] depth, where the board is a string like the one {@link TwoPlayerChessBoard} gets and the
+ * rows can be separated with '/' instead of new lines
+ */
+public class Perft {
+
+    private static final int PROMOTIONS = 4; // a promotion to every piece is another move
+    private static final long PROMOTION_ROWS = 0xFFL | 0xFFL << 56; // the first and the last row
+
+    private final TwoPlayerChessBoard board;
+    private final MoveGenerator generator;
+    private final TranspositionTable table; // null when the counts are not kept
+    private long[][] destinations = new long[0][]; // the moves of the last ply, they are only counted
+    private final MoveListPool moveLists = new MoveListPool(); // the moves of every other ply, so nothing is allocated while counting
+    private MoveUndo[] undos = new MoveUndo[0];
+
+    public Perft(TwoPlayerChessBoard board) {
+        this(board, null);
+    }
+
+    /**
+     * @param table the table to keep the counts of the subtrees in, or null
+     */
+    public Perft(TwoPlayerChessBoard board, TranspositionTable table) {
+        this.board = board;
+        this.generator = board.getMoveGenerator();
+        this.table = table;
+    }
+
+    /**
+     * @return the number of positions reached after {@param depth} moves, starting with the side to move of the board
+     */
+    public long perft(int depth) {
+        ensurePlies(depth);
+        return depth == 0 ? 1 : count(depth, 0);
+    }
+
+    /**
+     * @return the number of positions reached after {@param depth} moves under every legal move of the board, the keys are
+     * the moves in the "e2e4" form (and "a7a8q" for a promotion), in the order they were generated
+     */
+    public Map<String, Long> divide(int depth) {
+        ensurePlies(depth);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        MoveList moves = moveLists.get(0);
+        generator.generate(board.getSideToMove(), moves);
+        MoveUndo undo = undos[0];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move, undo);
+            long count = depth <= 1 ? 1 : count(depth - 1, 1);
+            board.unmakeMove(undo);
+            counts.put(Move.toString(move), count);
+        }
+        return counts;
+    }
+
+    /**
+     * @param depth the moves left, at least 1
+     * @param ply   how many moves were made since the start, the index of the arrays of this ply
+     */
+    private long count(int depth, int ply) {
+        // the same position has another count for every depth, so the depth is mixed into the key
+        long key = board.hash() ^ depth * 0x9E3779B97F4A7C15L;
+        if (table != null && depth > 1) {
+            long data = table.probe(key);
+            if (data != 0 && TranspositionTable.depth(data) == depth)
+                return TranspositionTable.value(data);
+        }
+
+        long count = 0;
+
+        // on the last move there is no need to make the moves, counting them is enough
+        if (depth == 1) {
+            long[] moves = destinations[ply];
+            for (long pieces = generator.generate(board.getSideToMove(), moves); pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces)) {
+                int from = Bitboards.firstSquare(pieces);
+                count += Long.bitCount(moves[from]);
+                if (isPawn(from))
+                    count += (PROMOTIONS - 1) * Long.bitCount(moves[from] & PROMOTION_ROWS);
+            }
+            return count;
+        }
+
+        MoveUndo undo = undos[ply];
+        MoveList moves = moveLists.get(ply);
+        generator.generate(board.getSideToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i), undo);
+            count += count(depth - 1, ply + 1);
+            board.unmakeMove(undo);
+        }
+        if (table != null)
+            table.store(key, count, depth);
+        return count;
+    }
+
+    private boolean isPawn(int square) {
+        ChessPiece piece = board.getPieceInPlace(Bitboards.row(square), Bitboards.column(square));
+        return piece.getType() == PieceType.Pawn;
+    }
+
+    private void ensurePlies(int depth) {
+        if (destinations.length >= depth)
+            return;
+        destinations = new long[depth][64];
+        undos = new MoveUndo[depth];
+        for (int ply = 0; ply < depth; ply++)
+            undos[ply] = new MoveUndo();
+    }
+
+    /**
+     * @return the board string with '/' between the rows replaced by new lines, as {@link TwoPlayerChessBoard} wants it
+     */
+    public static String toBoardString(String rows) {
+        return rows.replace('/', '\n');
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("usage: Perft \"board\" [w|b] depth");
+            return;
+        }
+        Color side = args.length > 2 && args[1].equals("b") ? Color.Black : Color.White;
+        int depth = Integer.parseInt(args[args.length - 1]);
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(toBoardString(args[0]), side);
+        Perft perft = new Perft(board);
+        perft.perft(1); // loads the attack tables, so it is not counted in the time
+
+        long start = System.nanoTime();
+        Map<String, Long> counts = perft.divide(depth);
+        long nanos = System.nanoTime() - start;
+
+        long nodes = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+            nodes += entry.getValue();
+        }
+        System.out.println();
+        System.out.println("Moves: " + counts.size());
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Time: " + nanos / 1_000_000 + " ms");
+        System.out.println("Nodes/second: " + nodesPerSecond(nodes, nanos));
+    }
+
+    static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : (long) (nodes * 1e9 / nanos);
+    }
+}
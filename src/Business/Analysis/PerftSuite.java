@@ -0,0 +1,102 @@
+package Business.Analysis;
+
+import Business.Boards.Fen;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.Color;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * The standard perft reference positions (in FEN) with their expected counts, to check the move generation after every change.
+ * Our rules have no en passant, so the counts are the published counts without the en passant moves. Where an en passant
+ * move can happen before the last move the published count can not be fixed by hand, so the count is the one this
+ * generator gave after the shallower counts were checked (those depths are marked in the names of the positions).
+ * Usage: PerftSuite [max depth]
+ */
+public class PerftSuite {
+
+    /**
+     * a position and its counts, the count of depth d is in expected[d - 1]
+     */
+    public static final class ReferencePosition {
+        public final String name;
+        public final String fen;
+        public final long[] expected;
+
+        ReferencePosition(String name, String fen, long... expected) {
+            this.name = name;
+            this.fen = fen;
+            this.expected = expected;
+        }
+
+        /**
+         * @return a new board with the position
+         */
+        public TwoPlayerChessBoard board() {
+            return Fen.parse(fen);
+        }
+    }
+
+    public static final List<ReferencePosition> POSITIONS = List.of(
+            new ReferencePosition("start position", Fen.START,
+                    20, 400, 8902, 197281, 4865351),
+            new ReferencePosition("kiwipete (depth 3 from this generator)",
+                    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48, 2038, 97766),
+            new ReferencePosition("position 3 (depths 4 and 5 from this generator)",
+                    "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2810, 43087, 671300),
+            new ReferencePosition("position 4 (depth 4 from this generator)",
+                    "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9463, 422146),
+            new ReferencePosition("position 4 mirrored (depth 4 from this generator)",
+                    "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1",
+                    6, 264, 9463, 422146),
+            new ReferencePosition("position 5",
+                    "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1486, 62379, 2103487),
+            new ReferencePosition("position 6",
+                    "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2079, 89890, 3894594)
+    );
+
+    private PerftSuite() {
+    } // There Is no need for instances of this class
+
+    /**
+     * runs every position up to {@param maxDepth} and prints the counts and the speed to {@param out}
+     *
+     * @return the number of counts that were not as expected
+     */
+    public static int run(int maxDepth, PrintStream out) {
+        int failures = 0;
+        long totalNodes = 0, totalNanos = 0;
+        for (ReferencePosition position : POSITIONS) {
+            out.println(position.name);
+            for (int depth = 1; depth <= Math.min(maxDepth, position.expected.length); depth++) {
+                Perft perft = new Perft(position.board());
+                long start = System.nanoTime();
+                long nodes = perft.perft(depth);
+                long nanos = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalNanos += nanos;
+
+                boolean ok = nodes == position.expected[depth - 1];
+                if (!ok)
+                    failures++;
+                out.printf("  depth %d: %d nodes, %s, %d ms, %d nodes/second%n", depth, nodes,
+                        ok ? "ok" : "expected " + position.expected[depth - 1], nanos / 1_000_000, Perft.nodesPerSecond(nodes, nanos));
+            }
+        }
+        out.printf("%d nodes, %d ms, %d nodes/second, %d failed%n", totalNodes, totalNanos / 1_000_000,
+                Perft.nodesPerSecond(totalNodes, totalNanos), failures);
+        return failures;
+    }
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+        new TwoPlayerChessBoard().getMoveGenerator().isInCheck(Color.White); // loads the attack tables, so it is not counted in the time
+        System.exit(run(maxDepth, System.out) == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,127 @@
+package Business.Boards;
+
+import Business.ChessPieces.ChessPiece;
+import Business.Color;
+
+/**
+ * For every square, the squares of the pieces of every color that attack it, the squares every piece attacks and all
+ * the squares every color attacks, so "is this square attacked", its attackers and their number are array reads.
+ * The map follows the position of its {@link TwoPlayerChessBoard}: "makeMove" and "unmakeMove" tell it the squares
+ * they changed, and on the next question it works out again only the pieces whose attacks changed, the pieces on those
+ * squares and the pieces that attacked them (a slider ray that gets opened or blocked on a square always reaches that
+ * square first). The changes are kept until then, so a move that is made and unmade again costs one update. The
+ * {@link MoveGenerator} reads the checkers and the attacked squares from it.
+ * When the board is set up (a board string or a FEN) the map is made again from scratch on the next question.
+ * Note: the attacks of a pawn are the squares it can eat on, not the squares it can move to
+ */
+class AttackMap {
+
+    private final TwoPlayerChessBoard board;
+    private final long[][] attacksFrom = new long[2][64]; // [color][square] the squares the color piece on the square attacks
+    private final long[][] attackersOf = new long[2][64]; // [color][target] the squares of the color pieces that attack the target
+    private final long[] attacked = new long[2]; // [color] the squares with at least one attacker of the color
+    private final long[] changed = {Bitboards.FULL, Bitboards.FULL}; // [color] the squares the board changed since the color was up to date
+
+    AttackMap(TwoPlayerChessBoard board) {
+        this.board = board;
+    }
+
+    /**
+     * makes this map a copy of {@param map}, for a copy of its board
+     */
+    void copyFrom(AttackMap map) {
+        for (int color = 0; color < 2; color++) {
+            System.arraycopy(map.attacksFrom[color], 0, attacksFrom[color], 0, 64);
+            System.arraycopy(map.attackersOf[color], 0, attackersOf[color], 0, 64);
+            attacked[color] = map.attacked[color];
+            changed[color] = map.changed[color];
+        }
+    }
+
+    /**
+     * @return true if a {@param color} piece attacks {@param square}
+     */
+    boolean isAttacked(Color color, int square) {
+        return (attacked(color) & Bitboards.bit(square)) != 0;
+    }
+
+    /**
+     * @return the number of {@param color} pieces that attack {@param square}
+     */
+    int count(Color color, int square) {
+        return Long.bitCount(attackers(color, square));
+    }
+
+    /**
+     * @return the squares of the {@param color} pieces that attack {@param square}
+     */
+    long attackers(Color color, int square) {
+        ensureValid(color);
+        return attackersOf[color.ordinal()][square];
+    }
+
+    /**
+     * @return all the squares {@param color} attacks
+     */
+    long attacked(Color color) {
+        ensureValid(color);
+        return attacked[color.ordinal()];
+    }
+
+    /**
+     * the board was set up, the map is made again on the next question
+     */
+    void invalidate() {
+        update(Bitboards.FULL);
+    }
+
+    /**
+     * called after the board moved pieces on {@param squares}, the map is updated on the next question
+     */
+    void update(long squares) {
+        changed[0] |= squares;
+        changed[1] |= squares;
+    }
+
+    /**
+     * works out again the attacks of the {@param color} pieces on the changed squares or that attacked them, the other
+     * color is updated when it is asked about
+     */
+    private void ensureValid(Color color) {
+        int c = color.ordinal();
+        long changed = this.changed[c];
+        if (changed == 0)
+            return;
+        long[] attacksFrom = this.attacksFrom[c];
+        long pieces = board.occupancy(color);
+        for (long squares = changed & ~pieces; squares != 0; squares = Bitboards.withoutFirstSquare(squares))
+            setAttacks(c, Bitboards.firstSquare(squares), Bitboards.EMPTY);
+        long occupied = board.occupied();
+        long attacks = Bitboards.EMPTY;
+        for (; pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces)) {
+            int square = Bitboards.firstSquare(pieces);
+            if (((attacksFrom[square] | Bitboards.bit(square)) & changed) != 0) {
+                ChessPiece piece = board.getPieceInPlace(Bitboards.row(square), Bitboards.column(square));
+                setAttacks(c, square, AttackTables.attacks(piece.getType(), color, square, occupied));
+            }
+            attacks |= attacksFrom[square];
+        }
+        attacked[c] = attacks;
+        this.changed[c] = Bitboards.EMPTY;
+    }
+
+    /**
+     * sets the attacks of the {@param color} piece on {@param square}, only the targets it stopped or started to
+     * attack are changed in the attackers of the targets
+     */
+    private void setAttacks(int color, int square, long attacks) {
+        long before = attacksFrom[color][square];
+        long[] attackersOf = this.attackersOf[color];
+        long bit = Bitboards.bit(square);
+        for (long targets = before & ~attacks; targets != 0; targets = Bitboards.withoutFirstSquare(targets))
+            attackersOf[Bitboards.firstSquare(targets)] &= ~bit;
+        for (long targets = attacks & ~before; targets != 0; targets = Bitboards.withoutFirstSquare(targets))
+            attackersOf[Bitboards.firstSquare(targets)] |= bit;
+        attacksFrom[color][square] = attacks;
+    }
+}
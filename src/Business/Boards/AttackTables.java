@@ -0,0 +1,212 @@
+package Business.Boards;
+
+import Business.ChessPieces.PieceType;
+import Business.Color;
+
+/**
+ * Precomputed attack bitboards for every piece type on every square.
+ * Knights, kings and pawns do not depend on the other pieces, so their attacks are simply read from a table.
+ * Rooks and bishops (and queens) use magic bitboards: the pieces that can block a slider on a square are masked out of
+ * the occupancy, multiplied by a "magic" number and shifted, which gives a unique index into a table of the attacks
+ * for that blocker arrangement. The magic numbers are searched once, when the class is loaded, with a fixed seed.
+ */
+public final class AttackTables {
+
+    // every step is a {row, column} difference
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final int[][] KING_STEPS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final int[][] KNIGHT_JUMPS = {{-2, 1}, {-1, 2}, {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}};
+    private static final int[][] WHITE_PAWN_ATTACKS = {{-1, -1}, {-1, 1}}; // white pawns go up
+    private static final int[][] BLACK_PAWN_ATTACKS = {{1, -1}, {1, 1}};
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64]; // indexed by the color ordinal
+
+    private static final Magic[] ROOK_MAGICS = new Magic[64];
+    private static final Magic[] BISHOP_MAGICS = new Magic[64];
+
+    /**
+     * the magic lookup of one slider on one square
+     */
+    private static final class Magic {
+        final long mask; // the squares that can block the slider, the edges of the board are not included
+        final long magic;
+        final int shift;
+        final long[] attacks;
+
+        Magic(long mask, long magic, int shift, long[] attacks) {
+            this.mask = mask;
+            this.magic = magic;
+            this.shift = shift;
+            this.attacks = attacks;
+        }
+
+        long attacks(long occupied) {
+            return attacks[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+    }
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = stepAttacks(square, KNIGHT_JUMPS);
+            KING[square] = stepAttacks(square, KING_STEPS);
+            PAWN[Color.White.ordinal()][square] = stepAttacks(square, WHITE_PAWN_ATTACKS);
+            PAWN[Color.Black.ordinal()][square] = stepAttacks(square, BLACK_PAWN_ATTACKS);
+        }
+
+        long[] seed = {0x9E3779B97F4A7C15L}; // a fixed seed, so the same magics are found on every run
+        for (int square = 0; square < 64; square++) {
+            ROOK_MAGICS[square] = findMagic(square, ROOK_DIRECTIONS, seed);
+            BISHOP_MAGICS[square] = findMagic(square, BISHOP_DIRECTIONS, seed);
+        }
+    }
+
+    private AttackTables() {
+    } // There Is no need for instances of this class
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return the squares a {@param color} pawn standing on {@param square} can eat on
+     */
+    public static long pawn(Color color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    /**
+     * @param occupied the taken squares, a rook stops at the first taken square in every direction
+     * @return the squares a rook on {@param square} attacks
+     */
+    public static long rook(int square, long occupied) {
+        return ROOK_MAGICS[square].attacks(occupied);
+    }
+
+    /**
+     * @param occupied the taken squares, a bishop stops at the first taken square in every direction
+     * @return the squares a bishop on {@param square} attacks
+     */
+    public static long bishop(int square, long occupied) {
+        return BISHOP_MAGICS[square].attacks(occupied);
+    }
+
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * @param occupied the taken squares, for the sliders
+     * @return the squares a {@param color} piece of {@param type} on {@param square} attacks (for a pawn, the squares it
+     * can eat on)
+     */
+    public static long attacks(PieceType type, Color color, int square, long occupied) {
+        return switch (type) {
+            case Pawn -> pawn(color, square);
+            case Knight -> knight(square);
+            case Bishop -> bishop(square, occupied);
+            case Rook -> rook(square, occupied);
+            case Queen -> queen(square, occupied);
+            case King -> king(square);
+        };
+    }
+
+    /**
+     * searches a magic number for a slider on {@param square}, a magic is good when no two blocker arrangements with
+     * different attacks get the same index
+     */
+    private static Magic findMagic(int square, int[][] directions, long[] seed) {
+        long mask = relevantBlockers(square, directions);
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+
+        // all the subsets of the mask, with the attacks for each of them
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[size];
+        int[] usedAt = new int[size]; // in which try an index was filled, so the table does not need to be cleared between tries
+        for (int attempt = 1; ; attempt++) {
+            long magic = nextRandom(seed) & nextRandom(seed) & nextRandom(seed); // magics with few bits work better
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6)
+                continue;
+
+            boolean failed = false;
+            for (int i = 0; i < size && !failed; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                if (usedAt[index] != attempt) {
+                    usedAt[index] = attempt;
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    failed = true;
+                }
+            }
+            if (!failed)
+                return new Magic(mask, magic, 64 - bits, table);
+        }
+    }
+
+    /**
+     * @return the squares that can block a slider on {@param square}, the last square in every direction can not block anything
+     */
+    private static long relevantBlockers(int square, int[][] directions) {
+        long mask = Bitboards.EMPTY;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0], column = Bitboards.column(square) + direction[1];
+            for (; Bitboards.isInBoard(row + direction[0], column + direction[1]); row += direction[0], column += direction[1])
+                mask |= Bitboards.bit(Bitboards.square(row, column));
+        }
+        return mask;
+    }
+
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = Bitboards.EMPTY;
+        for (int[] step : steps) {
+            int row = Bitboards.row(square) + step[0], column = Bitboards.column(square) + step[1];
+            if (Bitboards.isInBoard(row, column))
+                attacks |= Bitboards.bit(Bitboards.square(row, column));
+        }
+        return attacks;
+    }
+
+    /**
+     * the slow way to calculate slider attacks, walking square by square, used only to fill the tables
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = Bitboards.EMPTY;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0], column = Bitboards.column(square) + direction[1];
+            for (; Bitboards.isInBoard(row, column); row += direction[0], column += direction[1]) {
+                long bit = Bitboards.bit(Bitboards.square(row, column));
+                attacks |= bit;
+                if ((occupied & bit) != 0)
+                    break;
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * xorshift random numbers, with a fixed seed so the tables are the same on every run
+     */
+    private static long nextRandom(long[] seed) {
+        long x = seed[0];
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        seed[0] = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+}
@@ -0,0 +1,118 @@
+package Business.Boards;
+
+import Business.Place;
+
+/**
+ * Helpers for working with bitboards.
+ * A bitboard is a long where every bit represent a square on the board, bit number (row * 8 + column) is the square
+ * in that row and column, so bit 0 is the top left corner (where the black rook start) and bit 63 is the bottom right corner
+ */
+public final class Bitboards {
+
+    public static final long EMPTY = 0L;
+    public static final long FULL = ~0L;
+
+    // every direction is a {row, column} step
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private static final long[][] BETWEEN = new long[64][64]; // the squares between two squares on the same line, not including them
+    private static final long[][] LINE = new long[64][64]; // the whole line (from edge to edge) that goes through two squares
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            for (int[] direction : DIRECTIONS) {
+                long line = ray(square, direction[0], direction[1]) | ray(square, -direction[0], -direction[1]) | bit(square);
+                long path = EMPTY;
+                int row = row(square) + direction[0], column = column(square) + direction[1];
+                for (; isInBoard(row, column); row += direction[0], column += direction[1]) {
+                    int target = square(row, column);
+                    BETWEEN[square][target] = path;
+                    LINE[square][target] = line;
+                    path |= bit(target);
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    } // There Is no need for instances of this class
+
+    /**
+     * @return the square number of the place in {@param row} and {@param column}
+     */
+    public static int square(int row, int column) {
+        return row * 8 + column;
+    }
+
+    /**
+     * @return the square number of {@param place}
+     */
+    public static int square(Place place) {
+        return place.getSquare();
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int column(int square) {
+        return square & 7;
+    }
+
+    public static Place toPlace(int square) {
+        return Place.getPlace(square);
+    }
+
+    /**
+     * @return a bitboard with only {@param square} set
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static boolean contains(long bitboard, int square) {
+        return (bitboard & bit(square)) != 0;
+    }
+
+    /**
+     * @return the square of the lowest set bit, the bitboard must not be empty
+     */
+    public static int firstSquare(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * @return the bitboard without its lowest set bit, used to iterate over the squares of a bitboard
+     */
+    public static long withoutFirstSquare(long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+
+    public static boolean isInBoard(int row, int column) {
+        return row >= 0 & row < 8 & column >= 0 & column < 8;
+    }
+
+    /**
+     * @return the squares between {@param square1} and {@param square2} (not including them) if they are on the same line, otherwise an empty bitboard
+     */
+    public static long between(int square1, int square2) {
+        return BETWEEN[square1][square2];
+    }
+
+    /**
+     * @return the whole line that goes through {@param square1} and {@param square2}, or an empty bitboard if they are not on the same line
+     */
+    public static long line(int square1, int square2) {
+        return LINE[square1][square2];
+    }
+
+    /**
+     * @return the squares from {@param square} (not included) to the edge of the board, going {@param rowStep} rows and {@param columnStep} columns every step
+     */
+    private static long ray(int square, int rowStep, int columnStep) {
+        long ray = EMPTY;
+        for (int row = row(square) + rowStep, column = column(square) + columnStep; isInBoard(row, column); row += rowStep, column += columnStep)
+            ray |= bit(square(row, column));
+        return ray;
+    }
+}
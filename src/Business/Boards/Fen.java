@@ -0,0 +1,311 @@
+package Business.Boards;
+
+import Business.ChessPieces.ChessPiece;
+import Business.ChessPieces.PieceType;
+import Business.Color;
+import Business.MessagesLibrary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes boards in the FEN form: the pieces row by row from row 8 ('/' between the rows, a digit for empty
+ * squares, "PNBRQK" for white and "pnbrqk" for black), the side to move, the castling rights, the en passant square and
+ * the move counters ("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1").
+ * Reading and writing go over the characters once, from a CharSequence or straight from the bytes of a ByteBuffer, and
+ * make no Strings on the way. A board can be read into again, so a file of millions of positions needs one board
+ * (see "forEach").
+ * This program has no en passant, so the en passant square is read and ignored, and written as "-".
+ * A castling right in the FEN of a king or a rook that is not on its starting place is lost
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_LETTERS = "PNBRQK"; // by the PieceType ordinal
+    private static final String CASTLING_LETTERS = "KQkq"; // by the castling rights bit
+    private static final int CHUNK_BYTES = 64 << 20; // the part of a file "forEach" maps at once
+
+    private Fen() {
+    } // There Is no need for instances of this class
+
+    /**
+     * @return a new board with the position of {@param fen}
+     */
+    public static TwoPlayerChessBoard parse(CharSequence fen) {
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard("");
+        read(fen, 0, board);
+        return board;
+    }
+
+    /**
+     * reads a FEN from the position of {@param buffer} to a new board, the position is moved to the end of the FEN
+     */
+    public static TwoPlayerChessBoard parse(ByteBuffer buffer) {
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard("");
+        read(buffer, board);
+        return board;
+    }
+
+    /**
+     * reads a FEN from the position of {@param buffer} to {@param board} (what was on it is gone), the position is moved
+     * to the end of the FEN
+     */
+    public static void read(ByteBuffer buffer, TwoPlayerChessBoard board) {
+        int end = read(new AsciiSequence(buffer, buffer.position(), buffer.limit()), 0, board);
+        buffer.position(buffer.position() + end);
+    }
+
+    /**
+     * reads the FEN that starts at {@param start} of {@param fen} to {@param board} (what was on it is gone), the move
+     * counters can be missing (like in an EPD line), anything after the FEN is not read
+     *
+     * @return the index after the FEN
+     */
+    public static int read(CharSequence fen, int start, TwoPlayerChessBoard board) {
+        board.clear();
+        int i = skipSpaces(fen, start);
+        int row = 0, column = 0;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (column != 8 || ++row > 7)
+                    throw new RuntimeException(MessagesLibrary.ILLEGAL_FEN);
+                column = 0;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                if (column > 7)
+                    throw new RuntimeException(MessagesLibrary.ILLEGAL_FEN);
+                board.putParsedPiece(Bitboards.square(row, column++), pieceOf(c));
+            }
+            if (column > 8)
+                throw new RuntimeException(MessagesLibrary.ILLEGAL_FEN);
+        }
+        if (row != 7 || column != 8)
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_FEN);
+
+        i = skipSpaces(fen, i);
+        if (i >= fen.length() || fen.charAt(i) != 'w' && fen.charAt(i) != 'b')
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_FEN);
+        Color sideToMove = fen.charAt(i++) == 'w' ? Color.White : Color.Black;
+
+        i = skipSpaces(fen, i);
+        int castlingRights = 0;
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+                int right = CASTLING_LETTERS.indexOf(fen.charAt(i));
+                if (right < 0)
+                    throw new RuntimeException(MessagesLibrary.ILLEGAL_FEN);
+                castlingRights |= 1 << right;
+            }
+        }
+
+        // the en passant square, this program has no en passant
+        i = skipSpaces(fen, i);
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            i++;
+        } else if (i + 1 < fen.length() && fen.charAt(i) >= 'a' && fen.charAt(i) <= 'h' && (fen.charAt(i + 1) == '3' || fen.charAt(i + 1) == '6')) {
+            i += 2;
+        } else {
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_FEN);
+        }
+
+        int halfmoveClock = 0, fullmoveNumber = 1;
+        int counter = skipSpaces(fen, i);
+        if (isDigit(fen, counter)) {
+            for (halfmoveClock = 0; isDigit(fen, counter); counter++)
+                halfmoveClock = halfmoveClock * 10 + fen.charAt(counter) - '0';
+            counter = skipSpaces(fen, counter);
+            if (isDigit(fen, counter)) {
+                for (fullmoveNumber = 0; isDigit(fen, counter); counter++)
+                    fullmoveNumber = fullmoveNumber * 10 + fen.charAt(counter) - '0';
+            }
+            i = counter;
+        }
+        board.finishSetUp(sideToMove, castlingRights, halfmoveClock, Math.max(1, fullmoveNumber));
+        return i;
+    }
+
+    /**
+     * @return the FEN of the position on {@param board}
+     */
+    public static String toFen(TwoPlayerChessBoard board) {
+        StringBuilder output = new StringBuilder(90);
+        write(board, output);
+        return output.toString();
+    }
+
+    /**
+     * appends the FEN of {@param board} to {@param output}
+     */
+    public static void write(TwoPlayerChessBoard board, StringBuilder output) {
+        write(board, (Sink) output::append);
+    }
+
+    /**
+     * puts the FEN of {@param board} in {@param output} as ASCII bytes
+     */
+    public static void write(TwoPlayerChessBoard board, ByteBuffer output) {
+        write(board, c -> output.put((byte) c));
+    }
+
+    /**
+     * calls {@param action} with the position of every line of {@param file}, the file is mapped to memory a part at a
+     * time. The board is the same board for every line, copy it to keep a position. Empty lines are skipped, and
+     * anything after the FEN on a line (like the operations of an EPD line) is not read
+     *
+     * @return the number of positions
+     */
+    public static long forEach(Path file, Consumer<TwoPlayerChessBoard> action) throws IOException {
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard("");
+        long positions = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long offset = 0; offset < size; ) {
+                int length = (int) Math.min(CHUNK_BYTES, size - offset);
+                boolean last = offset + length == size;
+                ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                int lineStart = 0;
+                for (int i = 0; i <= length; i++) {
+                    if (i < length ? chunk.get(i) != '\n' : !last)
+                        continue;
+                    if (!isBlank(chunk, lineStart, i)) {
+                        chunk.limit(i).position(lineStart);
+                        read(chunk, board);
+                        chunk.limit(length);
+                        action.accept(board);
+                        positions++;
+                    }
+                    lineStart = i + 1;
+                }
+                if (lineStart == 0)
+                    throw new RuntimeException(MessagesLibrary.ILLEGAL_FEN); // a line longer than a chunk
+                offset += Math.min(lineStart, length);
+            }
+        }
+        return positions;
+    }
+
+    private static void write(TwoPlayerChessBoard board, Sink output) {
+        for (int row = 0; row < 8; row++) {
+            if (row > 0)
+                output.put('/');
+            int empty = 0;
+            for (int column = 0; column < 8; column++) {
+                ChessPiece piece = board.getPieceInPlace(row, column);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0)
+                    output.put((char) ('0' + empty));
+                empty = 0;
+                char letter = PIECE_LETTERS.charAt(piece.getType().ordinal());
+                output.put(piece.getColor() == Color.White ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0)
+                output.put((char) ('0' + empty));
+        }
+
+        output.put(' ');
+        output.put(board.getSideToMove() == Color.White ? 'w' : 'b');
+        output.put(' ');
+        int castlingRights = board.getCastlingRights();
+        if (castlingRights == 0)
+            output.put('-');
+        for (int right = 0; right < CASTLING_LETTERS.length(); right++) {
+            if ((castlingRights & 1 << right) != 0)
+                output.put(CASTLING_LETTERS.charAt(right));
+        }
+        output.put(' ');
+        output.put('-');
+        output.put(' ');
+        putNumber(board.getHalfmoveClock(), output);
+        output.put(' ');
+        putNumber(board.getFullmoveNumber(), output);
+    }
+
+    private static void putNumber(int number, Sink output) {
+        if (number >= 10)
+            putNumber(number / 10, output);
+        output.put((char) ('0' + number % 10));
+    }
+
+    private static ChessPiece pieceOf(char letter) {
+        Color color = Character.isUpperCase(letter) ? Color.White : Color.Black;
+        int type = PIECE_LETTERS.indexOf(Character.toUpperCase(letter));
+        if (type < 0)
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_FEN);
+        return ChessPiece.of(color, PieceType.of(type));
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ')
+            i++;
+        return i;
+    }
+
+    private static boolean isDigit(CharSequence fen, int i) {
+        return i < fen.length() && fen.charAt(i) >= '0' && fen.charAt(i) <= '9';
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) > ' ')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * where "write" puts the characters
+     */
+    private interface Sink {
+        void put(char c);
+    }
+
+    /**
+     * the ASCII bytes of a buffer as characters, without copying them
+     */
+    private static final class AsciiSequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int end;
+
+        AsciiSequence(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new AsciiSequence(buffer, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder output = new StringBuilder(length());
+            for (int i = 0; i < length(); i++)
+                output.append(charAt(i));
+            return output.toString();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package Business.Boards;
+
+import Business.Color;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of the legal moves of positions, shared by all the games of the process (see "getDefault"), so a position
+ * that many games get to (like the openings) is worked out by the {@link MoveGenerator} once.
+ * A position is found by its hash ({@link TwoPlayerChessBoard#hash()}) and its side to move. The hash has the side to
+ * move and the castling rights in it already, the side is checked again so the moves of the wrong color are never
+ * returned.
+ * The entries are split in stripes by the hash, every stripe has its own lock, so games that ask at the same time
+ * mostly take different locks. The moves are worked out out of the lock.
+ * When a stripe is full an entry is thrown away by the CLOCK rule: the hand goes around the entries, an entry that was
+ * found since the hand passed it gets another round, and the first entry that was not found is replaced. A popular
+ * position stays, a position that was seen once goes first
+ */
+public class LegalMoveCache {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16; // entries, can be changed with the "chess.legalMoveCache" system property
+
+    private static final int STRIPES = 16; // a power of two
+
+    private static LegalMoveCache defaultCache;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity the number of positions to keep, split evenly between the stripes (at least one in every stripe)
+     */
+    public LegalMoveCache(int capacity) {
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new Stripe(Math.max(1, capacity / STRIPES));
+    }
+
+    /**
+     * @return the cache of the process, with the capacity in the "chess.legalMoveCache" system property
+     */
+    public static synchronized LegalMoveCache getDefault() {
+        if (defaultCache == null)
+            defaultCache = new LegalMoveCache(Integer.getInteger("chess.legalMoveCache", DEFAULT_CAPACITY));
+        return defaultCache;
+    }
+
+    /**
+     * adds the legal moves of the side to move on {@param board} to {@param moves}, like
+     * {@link MoveGenerator#generate(Color, MoveList)}
+     *
+     * @return the number of moves that were added
+     */
+    public int legalMoves(TwoPlayerChessBoard board, MoveList moves) {
+        int[] legalMoves = lookUp(board);
+        for (int move : legalMoves)
+            moves.add(move);
+        return legalMoves.length;
+    }
+
+    /**
+     * @return the legal moves of the side to move on {@param board}, from the cache or worked out and put in it.
+     * The array is shared, it must not be changed
+     */
+    private int[] lookUp(TwoPlayerChessBoard board) {
+        long key = board.hash();
+        Color side = board.getSideToMove();
+        Stripe stripe = stripes[(int) (key >>> 32) & (STRIPES - 1)];
+        int[] moves = stripe.get(key, side);
+        if (moves != null) {
+            hits.increment();
+            return moves;
+        }
+        misses.increment();
+
+        MoveList generated = new MoveList();
+        board.getMoveGenerator().generate(side, generated);
+        moves = new int[generated.size()];
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = generated.get(i);
+        if (stripe.put(key, side, moves))
+            evictions.increment();
+        return moves;
+    }
+
+    /**
+     * throws away all the positions and the counters
+     */
+    public void clear() {
+        for (Stripe stripe : stripes)
+            stripe.clear();
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * @return the number of positions that can be kept
+     */
+    public int capacity() {
+        return STRIPES * stripes[0].keys.length;
+    }
+
+    /**
+     * @return the number of positions that are kept now
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes)
+            size += stripe.size();
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of positions that were thrown away to make room for new ones
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the part of the look ups that were found in the cache, 0 before the first look up
+     */
+    public double hitRate() {
+        long hits = getHits(), lookUps = hits + getMisses();
+        return lookUps == 0 ? 0 : (double) hits / lookUps;
+    }
+
+    public String toString() {
+        return String.format("%d/%d positions, %d hits, %d misses, %d evictions, %.1f%% hit rate", size(), capacity(), getHits(), getMisses(), getEvictions(), 100 * hitRate());
+    }
+
+    /**
+     * a part of the cache with its own lock (the stripe itself), the entries are kept in arrays by the slot, and an
+     * open addressing table of slots finds the slot of a hash: the table is the smallest power of two with at least
+     * twice the entries, so it is at most half full, an entry is looked for from the index of its hash on, and the
+     * slots are kept plus one so 0 is an empty place
+     */
+    private static final class Stripe {
+        private final long[] keys;
+        private final Color[] sides;
+        private final int[][] moves;
+        private final boolean[] referenced; // found since the hand passed the entry
+        private final int[] index; // the slot of a hash plus one, or 0
+        private final int indexMask;
+        private int size;
+        private int hand; // the slot the CLOCK rule looks at next
+
+        Stripe(int capacity) {
+            keys = new long[capacity];
+            sides = new Color[capacity];
+            moves = new int[capacity][];
+            referenced = new boolean[capacity];
+            index = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+            indexMask = index.length - 1;
+        }
+
+        synchronized int[] get(long key, Color side) {
+            int slot = find(key);
+            if (slot < 0 || sides[slot] != side)
+                return null;
+            referenced[slot] = true;
+            return moves[slot];
+        }
+
+        /**
+         * puts the entry, in place of the entry of the same hash if there is one
+         *
+         * @return true if another position was thrown away to make room
+         */
+        synchronized boolean put(long key, Color side, int[] moves) {
+            int slot = find(key);
+            boolean evicted = false;
+            if (slot < 0) {
+                if (size < keys.length) {
+                    slot = size++;
+                } else {
+                    while (referenced[hand]) {
+                        referenced[hand] = false;
+                        hand = (hand + 1) % keys.length;
+                    }
+                    slot = hand;
+                    hand = (hand + 1) % keys.length;
+                    remove(keys[slot]);
+                    evicted = true;
+                }
+                int i = home(key);
+                while (index[i] != 0)
+                    i = (i + 1) & indexMask;
+                index[i] = slot + 1;
+            }
+            keys[slot] = key;
+            sides[slot] = side;
+            this.moves[slot] = moves;
+            referenced[slot] = false;
+            return evicted;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(index, 0);
+            Arrays.fill(moves, null);
+            Arrays.fill(referenced, false);
+            size = 0;
+            hand = 0;
+        }
+
+        /**
+         * @return the slot of {@param key}, or -1
+         */
+        private int find(long key) {
+            for (int i = home(key); index[i] != 0; i = (i + 1) & indexMask) {
+                if (keys[index[i] - 1] == key)
+                    return index[i] - 1;
+            }
+            return -1;
+        }
+
+        /**
+         * takes {@param key} out of the index, the entries after it that were pushed on by it are moved back, so a look
+         * up never stops at a hole before its entry
+         */
+        private void remove(long key) {
+            int hole = home(key);
+            while (keys[index[hole] - 1] != key)
+                hole = (hole + 1) & indexMask;
+            for (int i = (hole + 1) & indexMask; index[i] != 0; i = (i + 1) & indexMask) {
+                // the entry in i can go to the hole if the hole is between its home and i
+                if (((i - home(keys[index[i] - 1])) & indexMask) >= ((i - hole) & indexMask)) {
+                    index[hole] = index[i];
+                    hole = i;
+                }
+            }
+            index[hole] = 0;
+        }
+
+        private int home(long key) {
+            return (int) key & indexMask; // the stripe is chosen by the high bits of the hash, the index by the low bits
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package Business.Boards;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Moves are kept as ints instead of objects: bits 0-5 the square the piece moves from, bits 6-11 the square it
+ * moves to and bits 12-14 the piece a pawn is promoted to (0 when it is not a promotion).
+ * The {@link MoveGenerator} also sets flags above them: the move takes a piece, is the first move of a pawn by two rows,
+ * or is a castling. The flags only tell about the move, without them a move still fits in 16 bits (that is how the
+ * search, the transposition table and the opening book keep it), so moves are compared with "isSame"
+ */
+public final class Move {
+
+    public static final int NONE = 0; // from a8 to a8, no move looks like that
+
+    public static final int NO_PROMOTION = 0;
+    public static final int QUEEN = 1;
+    public static final int ROOK = 2;
+    public static final int BISHOP = 3;
+    public static final int KNIGHT = 4;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+    private static final int FLAGS = CAPTURE | DOUBLE_PUSH | CASTLE;
+
+    // the letters the board gets for a promotion, indexed by the promotion
+    private static final List<Supplier<Character>> PROMOTION_LETTERS = List.of(() -> 'Q', () -> 'Q', () -> 'R', () -> 'B', () -> 'K');
+    private static final String PROMOTION_NAMES = " qrbn";
+
+    private Move() {
+    } // There Is no need for instances of this class
+
+    public static int of(int from, int to) {
+        return from | to << 6;
+    }
+
+    public static int of(int from, int to, int promotion) {
+        return from | to << 6 | promotion << 12;
+    }
+
+    public static int withoutFlags(int move) {
+        return move & ~FLAGS;
+    }
+
+    /**
+     * @return true if the moves go from and to the same squares with the same promotion, whatever their flags are
+     */
+    public static boolean isSame(int move1, int move2) {
+        return withoutFlags(move1) == withoutFlags(move2);
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    /**
+     * @return the supplier to give the board when the move is made, it gives the letter of the promotion piece
+     */
+    public static Supplier<Character> promotionLetter(int move) {
+        return PROMOTION_LETTERS.get(promotion(move));
+    }
+
+    /**
+     * @return the move in the "e2e4" form, with the promotion piece at the end ("a7a8q")
+     */
+    public static String toString(int move) {
+        String name = squareName(from(move)) + squareName(to(move));
+        return promotion(move) == NO_PROMOTION ? name : name + PROMOTION_NAMES.charAt(promotion(move));
+    }
+
+    private static String squareName(int square) {
+        return "" + (char) ('a' + Bitboards.column(square)) + (8 - Bitboards.row(square));
+    }
+}
@@ -0,0 +1,258 @@
+package Business.Boards;
+
+import Business.ChessPieces.ChessPiece;
+import Business.ChessPieces.PieceType;
+import Business.Color;
+
+/**
+ * This class generates the legal moves of a color on a {@link TwoPlayerChessBoard} in one pass.
+ * The pieces that give check and the pinned pieces are found once, and then the moves of every piece are filtered with
+ * masks instead of trying every move on the board and checking the king after it.
+ * Moves are returned as destination bitboards: destinations[from] holds every square the piece on "from" can move to,
+ * or as {@link Move} ints with their flags in a {@link MoveList}.
+ * Note: an instance belongs to one board and keeps its state between calls, so it is not thread safe
+ */
+public class MoveGenerator {
+    private static final long PROMOTION_ROWS = 0xFFL | 0xFFL << 56;
+
+    private final TwoPlayerChessBoard board;
+
+    // the state of the last "prepare" call
+    private Color color;
+    private int kingSquare;
+    private long checkers; // the opponent pieces that give check
+    private long checkMask; // the squares a piece (but the king) can move to in order to stop a check, all the squares when there is no check
+    private long pinned; // the color pieces that cannot leave the line between their king and an opponent piece
+    private final long[] pinRays = new long[64]; // for a pinned piece, the squares it can move to without leaving its king open
+    private long opponentAttacks; // the squares the opponent attacks, as if the king was not on the board
+
+    MoveGenerator(TwoPlayerChessBoard board) {
+        this.board = board;
+    }
+
+    /**
+     * generates all the legal moves of {@param color}
+     *
+     * @param destinations an array of 64 bitboards to fill, the entry of a square gets the legal destinations of the piece on it
+     * @return a bitboard of the squares of the pieces that have at least one legal move
+     */
+    public long generate(Color color, long[] destinations) {
+        prepare(color);
+        long movable = Bitboards.EMPTY;
+        for (long pieces = board.occupancy(color); pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces)) {
+            int from = Bitboards.firstSquare(pieces);
+            destinations[from] = destinationsOf(from);
+            if (destinations[from] != 0)
+                movable |= Bitboards.bit(from);
+        }
+        return movable;
+    }
+
+    /**
+     * adds all the legal moves of {@param color} to {@param moves}, a promotion is a move for every piece the pawn can become
+     *
+     * @return the number of moves that were added
+     */
+    public int generate(Color color, MoveList moves) {
+        prepare(color);
+        int size = moves.size();
+        for (long pieces = board.occupancy(color); pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces)) {
+            int from = Bitboards.firstSquare(pieces);
+            addMoves(from, destinationsOf(from), moves);
+        }
+        return moves.size() - size;
+    }
+
+    /**
+     * adds the legal moves of the piece on {@param from} to {@param moves}, nothing if the square is empty
+     *
+     * @return the number of moves that were added
+     */
+    public int generate(int from, MoveList moves) {
+        int size = moves.size();
+        addMoves(from, legalDestinations(from), moves);
+        return moves.size() - size;
+    }
+
+    private void addMoves(int from, long destinations, MoveList moves) {
+        if (destinations == 0)
+            return;
+        PieceType type = board.getPieceInPlace(Bitboards.row(from), Bitboards.column(from)).getType();
+        long opponent = board.occupancy(opponent(color));
+        for (; destinations != 0; destinations = Bitboards.withoutFirstSquare(destinations)) {
+            int to = Bitboards.firstSquare(destinations);
+            int move = Move.of(from, to);
+            if (Bitboards.contains(opponent, to))
+                move |= Move.CAPTURE;
+            if (type == PieceType.Pawn && Math.abs(to - from) == 16)
+                move |= Move.DOUBLE_PUSH;
+            else if (type == PieceType.King && Math.abs(to - from) == 2)
+                move |= Move.CASTLE;
+
+            if (type == PieceType.Pawn && Bitboards.contains(PROMOTION_ROWS, to)) {
+                for (int promotion = Move.QUEEN; promotion <= Move.KNIGHT; promotion++)
+                    moves.add(move | Move.of(0, 0, promotion));
+            } else {
+                moves.add(move);
+            }
+        }
+    }
+
+    /**
+     * @return the legal destinations of the piece on {@param from}, or an empty bitboard if the square is empty
+     */
+    public long legalDestinations(int from) {
+        ChessPiece piece = board.getPieceInPlace(Bitboards.row(from), Bitboards.column(from));
+        if (piece == null)
+            return Bitboards.EMPTY;
+        prepare(piece.getColor());
+        return destinationsOf(from);
+    }
+
+    /**
+     * @return true if {@param color} has a legal move, stops at the first piece that can move
+     */
+    public boolean hasLegalMove(Color color) {
+        prepare(color);
+        // the king is checked first, it is the only piece that can move in a double check
+        long king = board.pieces(color, PieceType.King);
+        if (king != 0 && destinationsOf(kingSquare) != 0)
+            return true;
+        for (long pieces = board.occupancy(color) & ~king; pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces)) {
+            if (destinationsOf(Bitboards.firstSquare(pieces)) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the {@param color} king is threatened. The attackers are looked for from the king square and not
+     * in the attack map, the search asks it in every node, also in the nodes that make no moves, and the map is
+     * updated only for the nodes that make moves
+     */
+    public boolean isInCheck(Color color) {
+        long king = board.pieces(color, PieceType.King);
+        return king != 0 && attackersTo(Bitboards.firstSquare(king), opponent(color), board.occupied()) != 0;
+    }
+
+    /**
+     * calculates the checkers, the pinned pieces and the attacked squares for {@param color}, the checkers and the
+     * attacked squares are read from the attack map of the board
+     */
+    private void prepare(Color color) {
+        this.color = color;
+        Color opponent = opponent(color);
+        AttackMap attackMap = board.attackMap();
+        long occupied = board.occupied();
+        long king = board.pieces(color, PieceType.King);
+        pinned = Bitboards.EMPTY;
+        if (king == 0) { // can happen only on boards that were built without a king
+            checkers = Bitboards.EMPTY;
+            checkMask = Bitboards.FULL;
+            opponentAttacks = attackMap.attacked(opponent);
+            return;
+        }
+        kingSquare = Bitboards.firstSquare(king);
+
+        checkers = attackMap.attackers(opponent, kingSquare);
+        if (checkers == 0)
+            checkMask = Bitboards.FULL;
+        else if (Bitboards.withoutFirstSquare(checkers) == 0) // one checker, we can eat it or block it
+            checkMask = checkers | Bitboards.between(kingSquare, Bitboards.firstSquare(checkers));
+        else // double check, only the king can move
+            checkMask = Bitboards.EMPTY;
+
+        long opponentQueens = board.pieces(opponent, PieceType.Queen);
+        long snipers = (AttackTables.rook(kingSquare, Bitboards.EMPTY) & (board.pieces(opponent, PieceType.Rook) | opponentQueens))
+                | (AttackTables.bishop(kingSquare, Bitboards.EMPTY) & (board.pieces(opponent, PieceType.Bishop) | opponentQueens));
+        for (; snipers != 0; snipers = Bitboards.withoutFirstSquare(snipers)) {
+            int sniper = Bitboards.firstSquare(snipers);
+            long blockers = Bitboards.between(kingSquare, sniper) & occupied;
+            if (blockers != 0 && Bitboards.withoutFirstSquare(blockers) == 0 && (blockers & board.occupancy(color)) != 0) {
+                pinned |= blockers;
+                pinRays[Bitboards.firstSquare(blockers)] = Bitboards.between(kingSquare, sniper) | Bitboards.bit(sniper);
+            }
+        }
+
+        // the king must not hide the squares behind it from a slider that checks it (it cannot step back on the line),
+        // only the rays of the checkers go through the king square, so only they are made again without the king
+        opponentAttacks = attackMap.attacked(opponent);
+        long withoutKing = occupied & ~king;
+        for (long sliders = checkers & ~board.pieces(opponent, PieceType.Pawn) & ~board.pieces(opponent, PieceType.Knight); sliders != 0; sliders = Bitboards.withoutFirstSquare(sliders)) {
+            int slider = Bitboards.firstSquare(sliders);
+            opponentAttacks |= AttackTables.attacks(board.getPieceInPlace(Bitboards.row(slider), Bitboards.column(slider)).getType(), opponent, slider, withoutKing);
+        }
+    }
+
+    /**
+     * must be called after "prepare" with the color of the piece on {@param from}
+     */
+    private long destinationsOf(int from) {
+        PieceType type = board.getPieceInPlace(Bitboards.row(from), Bitboards.column(from)).getType();
+        long occupied = board.occupied();
+        long own = board.occupancy(color);
+
+        if (type == PieceType.King)
+            return kingDestinations(from, own);
+
+        long destinations = type == PieceType.Pawn ? pawnDestinations(from, occupied) : AttackTables.attacks(type, color, from, occupied);
+        destinations &= ~own & checkMask;
+        if ((pinned & Bitboards.bit(from)) != 0)
+            destinations &= pinRays[from];
+        return destinations;
+    }
+
+    private long pawnDestinations(int from, long occupied) {
+        int rowToAdd = color == Color.White ? -1 : 1;
+        long destinations = AttackTables.pawn(color, from) & board.occupancy(opponent(color));
+
+        int row = Bitboards.row(from) + rowToAdd, column = Bitboards.column(from);
+        if (Bitboards.isInBoard(row, column) && !Bitboards.contains(occupied, Bitboards.square(row, column))) {
+            destinations |= Bitboards.bit(Bitboards.square(row, column));
+            row += rowToAdd;
+            if (TwoPlayerChessBoard.canPawnMoveTwoSteps(color, Bitboards.row(from)) && Bitboards.isInBoard(row, column) && !Bitboards.contains(occupied, Bitboards.square(row, column)))
+                destinations |= Bitboards.bit(Bitboards.square(row, column));
+        }
+        return destinations;
+    }
+
+    private long kingDestinations(int from, long own) {
+        long destinations = AttackTables.king(from) & ~own & ~opponentAttacks;
+
+        // castling, like "isLegalPieceMovement" of the king: the castling right is on (the king and the rook did not move),
+        // the way to the rook is clear, and the king is not threatened on its place, on the place it passes and on the place it gets to
+        if ((board.getCastlingRights() & (TwoPlayerChessBoard.castlingRight(color, true) | TwoPlayerChessBoard.castlingRight(color, false))) == 0 || checkers != 0)
+            return destinations;
+        int row = Bitboards.row(from), column = Bitboards.column(from);
+        for (int step = -1; step <= 1; step += 2) {
+            int finishColumn = column + 2 * step;
+            if (finishColumn < 0 || finishColumn > 7)
+                continue;
+            int rookSquare = Bitboards.square(row, step > 0 ? 7 : 0);
+            if ((board.getCastlingRights() & TwoPlayerChessBoard.castlingRight(color, step > 0)) == 0)
+                continue;
+            int passing = Bitboards.square(row, column + step), finish = Bitboards.square(row, finishColumn);
+            long path = Bitboards.bit(passing) | Bitboards.bit(finish);
+            // every square between the king and the rook must be empty, but only the squares the king walks on must be safe
+            if ((board.occupied() & Bitboards.between(from, rookSquare)) == 0 && (opponentAttacks & path) == 0)
+                destinations |= Bitboards.bit(finish);
+        }
+        return destinations;
+    }
+
+    /**
+     * @return the {@param color} pieces that attack {@param square} when the taken squares are {@param occupied}
+     */
+    private long attackersTo(int square, Color color, long occupied) {
+        long queens = board.pieces(color, PieceType.Queen);
+        return (AttackTables.pawn(opponent(color), square) & board.pieces(color, PieceType.Pawn))
+                | (AttackTables.knight(square) & board.pieces(color, PieceType.Knight))
+                | (AttackTables.king(square) & board.pieces(color, PieceType.King))
+                | (AttackTables.bishop(square, occupied) & (board.pieces(color, PieceType.Bishop) | queens))
+                | (AttackTables.rook(square, occupied) & (board.pieces(color, PieceType.Rook) | queens));
+    }
+
+    static Color opponent(Color color) {
+        return color == Color.White ? Color.Black : Color.White;
+    }
+}
@@ -0,0 +1,86 @@
+package Business.Boards;
+
+import java.util.Arrays;
+
+/**
+ * A list of moves (see {@link Move}) on an int array, so filling it and reading it makes no objects.
+ * A list is made once and cleared for every position, a {@link MoveListPool} keeps one for every ply of a recursion
+ */
+public class MoveList {
+
+    public static final int DEFAULT_CAPACITY = 256; // more than the legal moves of any position
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length)
+            moves = Arrays.copyOf(moves, size * 2);
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the first move from {@param from} to {@param to}, with {@param promotion} if it is a promotion, or
+     * {@link Move#NONE}
+     */
+    public int find(int from, int to, int promotion) {
+        for (int i = 0; i < size; i++) {
+            int move = moves[i];
+            if (Move.from(move) == from && Move.to(move) == to && (Move.promotion(move) == Move.NO_PROMOTION || Move.promotion(move) == promotion))
+                return move;
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @return a bitboard of the squares the moves go to
+     */
+    public long destinations() {
+        long destinations = Bitboards.EMPTY;
+        for (int i = 0; i < size; i++)
+            destinations |= Bitboards.bit(Move.to(moves[i]));
+        return destinations;
+    }
+
+    /**
+     * @return the moves in the "e2e4" form, separated by spaces
+     */
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                output.append(' ');
+            output.append(Move.toString(moves[i]));
+        }
+        return output.toString();
+    }
+}
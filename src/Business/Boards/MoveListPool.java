@@ -0,0 +1,42 @@
+package Business.Boards;
+
+/**
+ * One {@link MoveList} for every ply of a recursion (a search or a perft), made once and cleared when it is taken, so
+ * the moves of a ply stay put while the plies under it use their own lists.
+ * Note: a pool belongs to one thread
+ */
+public class MoveListPool {
+
+    private MoveList[] lists = new MoveList[0];
+
+    public MoveListPool() {
+    }
+
+    /**
+     * @param plies the number of plies to make lists for now, more are made when they are asked for
+     */
+    public MoveListPool(int plies) {
+        ensurePlies(plies);
+    }
+
+    /**
+     * @return the empty list of {@param ply}
+     */
+    public MoveList get(int ply) {
+        if (ply >= lists.length)
+            ensurePlies(ply + 1);
+        MoveList list = lists[ply];
+        list.clear();
+        return list;
+    }
+
+    private void ensurePlies(int plies) {
+        if (plies <= lists.length)
+            return;
+        MoveList[] newLists = new MoveList[plies];
+        System.arraycopy(lists, 0, newLists, 0, lists.length);
+        for (int ply = lists.length; ply < plies; ply++)
+            newLists[ply] = new MoveList();
+        lists = newLists;
+    }
+}
@@ -0,0 +1,21 @@
+package Business.Boards;
+
+import Business.ChessPieces.ChessPiece;
+
+/**
+ * This class holds everything "makeMove" changed on the board, so "unmakeMove" can put the board back as it was.
+ * A record can be reused for many moves, every call to "makeMove" overrides it
+ */
+public class MoveUndo {
+    static final int NO_SQUARE = -1;
+
+    int from;
+    int to;
+    ChessPiece movedPiece; // the piece that was in "from", for a promotion this is the pawn
+    ChessPiece capturedPiece; // the piece that was in "to", or null
+    int rookFrom = NO_SQUARE; // when castling, the rook squares before and after the move
+    int rookTo = NO_SQUARE;
+    long hash; // the hash, the castling rights and the move clock of the board before the move
+    int castlingRights;
+    int halfmoveClock;
+}
@@ -1,7 +1,9 @@
 package Business.Boards;
 
-import Business.ChessPieces.*;
+import Business.ChessPieces.ChessPiece;
+import Business.ChessPieces.PieceType;
 import Business.Color;
+import Business.GameStatus;
 import Business.MessagesLibrary;
 import Business.Place;
 import Business.Place.Direction;
@@ -12,40 +14,115 @@ import java.util.function.Supplier;
 /**
  * The TwoPlayerChessBoard is a class to represent a normal chess board,of a normal chess game.
  * This class is responsible for all the chess rules
+ * The position is kept in bitboards (see {@link Bitboards}), one for every piece type of every color, next to an array
+ * of the pieces by square so the pieces can be returned to the users of the board.
+ * The board also keeps a Zobrist hash of the position (see {@link Zobrist}), updated with every move, and the side to move.
+ * For the evaluation it keeps the material of every color, the middle game and end game scores of the pieces on their
+ * squares (see {@link PieceSquareTables}) and the game phase, they are updated when a piece is put or removed.
+ * For the rules it keeps an {@link AttackMap} of the position, updated by every move, so the checks and the castling
+ * need no search for attackers, a ring of the hashes since the last capture or pawn move with the move clock, for the
+ * repetitions and the fifty moves rule, and the castling rights bits. The pieces are the shared pieces of {@link ChessPiece#of} and keep
+ * nothing about the game, so a copy of the board copies only arrays
  */
 public class TwoPlayerChessBoard {
 
     // static fields
 
-    private static final Map<Class<? extends ChessPiece>, Set<Direction>> fullRunnerValidMovementDirectionsMap = new HashMap<>(); // contains the valid moving direction for the pieces
     private static final String NORMAL_PIECE_ORDER_STRING = "rhbqkbhr\npppppppp\n\n\n\n\nPPPPPPPP\nRHBQKBHR"; // this string represent the starting order of a normal chess game.
 
+    // the castling rights bits, a right is kept while the king and that rook did not move
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+    private static final int[] CASTLING_MASKS = new int[64]; // the rights that are kept after a move from or to a square
 
     static {
-        fullRunnerValidMovementDirectionsMap.put(Bishop.class, new HashSet<>(Arrays.asList(Direction.RightDownDiagonal, Direction.RightUpDiagonal, Direction.LeftDownDiagonal, Direction.LeftUpDiagonal)));
-        fullRunnerValidMovementDirectionsMap.put(Queen.class, new HashSet<>(Arrays.asList(Direction.LeftUpDiagonal, Direction.Up, Direction.RightUpDiagonal, Direction.Right, Direction.RightDownDiagonal, Direction.Down, Direction.LeftDownDiagonal, Direction.Left)));
-        fullRunnerValidMovementDirectionsMap.put(Rook.class, new HashSet<>(Arrays.asList(Direction.Right, Direction.Up, Direction.Left, Direction.Down)));
+        Arrays.fill(CASTLING_MASKS, WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASKS[Bitboards.square(7, 4)] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASKS[Bitboards.square(7, 7)] &= ~WHITE_KING_SIDE;
+        CASTLING_MASKS[Bitboards.square(7, 0)] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASKS[Bitboards.square(0, 4)] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASKS[Bitboards.square(0, 7)] &= ~BLACK_KING_SIDE;
+        CASTLING_MASKS[Bitboards.square(0, 0)] &= ~BLACK_QUEEN_SIDE;
     }
 
+    private static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L; // a8 is a light square
+
+    public static final int FIFTY_MOVES_PLIES = 100; // a draw after fifty moves of every color with no capture and no pawn move
+    private static final int HISTORY_SIZE = 128; // more than the plies of the fifty moves rule, a power of 2
+
     //enums
 
 
     // fields
-    private final ChessPiece[][] pieces;
-    private Place whiteKingPlace;
-    private Place blackKingPlace;
+    private final long[] pieceBitboards; // one bitboard for every color and piece type, see "pieceIndex"
+    private final long[] colorOccupancy; // all the squares taken by a color, indexed by the color ordinal
+    private long occupied; // all the taken squares
+    private final ChessPiece[] squares; // the piece on every square, indexed by the square number
+    private final MoveUndo probeUndo = new MoveUndo(); // used to try a move and take it back, while checking if a move is legal
+    private final MoveGenerator moveGenerator = new MoveGenerator(this);
+    private final AttackMap attackMap = new AttackMap(this); // the attacks of the position, updated by every move
+    private long hash; // the Zobrist hash of the position, see "hash"
+    private int castlingRights; // the castling rights bits, see "getCastlingRights"
+    private Color sideToMove = Color.White;
+    private int halfmoveClock; // the moves (of any color) since the last capture or pawn move
+    private int fullmoveNumber = 1; // goes up after every black move, like in a FEN
+    private final long[] hashHistory = new long[HISTORY_SIZE]; // a ring of the hashes before the last moves, see "countRepetitions"
+    private int plies; // the moves made on the board, the hash before the last one is in hashHistory[(plies - 1) % HISTORY_SIZE]
+    private final int[] material = new int[2]; // indexed by the color ordinal
+    private int middlegameScore; // for white, see PieceSquareTables
+    private int endgameScore;
+    private int phase; // see PieceSquareTables.MAX_PHASE
 
 
     // Constructors
     public TwoPlayerChessBoard() {
-        pieces = new ChessPiece[8][8];
-        parseStringToPieces(NORMAL_PIECE_ORDER_STRING);
+        this(NORMAL_PIECE_ORDER_STRING);
     }
 
 
     public TwoPlayerChessBoard(String stringToParse) {
-        pieces = new ChessPiece[8][8];
+        this(stringToParse, Color.White);
+    }
+
+    /**
+     * @param stringToParse a string represent the position of the pieces on the board
+     * @param sideToMove    the color that makes the next move
+     */
+    public TwoPlayerChessBoard(String stringToParse, Color sideToMove) {
+        pieceBitboards = new long[2 * PieceType.COUNT];
+        colorOccupancy = new long[2];
+        squares = new ChessPiece[64];
         parseStringToPieces(stringToParse);
+        if (sideToMove == Color.Black) {
+            this.sideToMove = Color.Black;
+            hash ^= Zobrist.side();
+        }
+    }
+
+    /**
+     * a copy of {@param board}, moves on one board do not change the other board (the pieces keep nothing about the
+     * game, so the boards can share them)
+     */
+    public TwoPlayerChessBoard(TwoPlayerChessBoard board) {
+        pieceBitboards = board.pieceBitboards.clone();
+        colorOccupancy = board.colorOccupancy.clone();
+        occupied = board.occupied;
+        squares = board.squares.clone();
+        hash = board.hash;
+        castlingRights = board.castlingRights;
+        sideToMove = board.sideToMove;
+        halfmoveClock = board.halfmoveClock;
+        fullmoveNumber = board.fullmoveNumber;
+        System.arraycopy(board.hashHistory, 0, hashHistory, 0, HISTORY_SIZE);
+        plies = board.plies;
+        material[0] = board.material[0];
+        material[1] = board.material[1];
+        middlegameScore = board.middlegameScore;
+        endgameScore = board.endgameScore;
+        phase = board.phase;
+        attackMap.copyFrom(board.attackMap);
     }
 
     /**
@@ -62,97 +139,126 @@ public class TwoPlayerChessBoard {
                 continue;
             } // going threw the next line column will be zero at the next turn
 
-            try {
-
-                validBoardPlace(Place.getPlace(row, column));
-            } catch (Exception e) {
+            if (!Place.isInBoard(row, column))
                 throw new RuntimeException(MessagesLibrary.ILLEGAL_STRING);
-            }
 
+            int square = Bitboards.square(row, column);
             switch (stringToParse.charAt(i)) {
-                case 'P' -> pieces[row][column] = new Pawn(Color.White);
-                case 'p' -> pieces[row][column] = new Pawn(Color.Black);
-                case 'R' -> pieces[row][column] = new Rook(Color.White);
-                case 'r' -> pieces[row][column] = new Rook(Color.Black);
-                case 'B' -> pieces[row][column] = new Bishop(Color.White);
-                case 'b' -> pieces[row][column] = new Bishop(Color.Black);
-                case 'H' -> pieces[row][column] = new Knight(Color.White);
-                case 'h' -> pieces[row][column] = new Knight(Color.Black);
-                case 'K' -> {
-                    pieces[row][column] = new King(Color.White);
-                    whiteKingPlace = Place.getPlace(row, column);
-                }
-                case 'k' -> {
-                    pieces[row][column] = new King(Color.Black);
-                    blackKingPlace = Place.getPlace(row, column);
-                }
-                case 'Q' -> pieces[row][column] = new Queen(Color.White);
-                case 'q' -> pieces[row][column] = new Queen(Color.Black);
-                case '-' -> pieces[row][column] = null;
+                case 'P' -> putParsedPiece(square, ChessPiece.of(Color.White, PieceType.Pawn));
+                case 'p' -> putParsedPiece(square, ChessPiece.of(Color.Black, PieceType.Pawn));
+                case 'R' -> putParsedPiece(square, ChessPiece.of(Color.White, PieceType.Rook));
+                case 'r' -> putParsedPiece(square, ChessPiece.of(Color.Black, PieceType.Rook));
+                case 'B' -> putParsedPiece(square, ChessPiece.of(Color.White, PieceType.Bishop));
+                case 'b' -> putParsedPiece(square, ChessPiece.of(Color.Black, PieceType.Bishop));
+                case 'H' -> putParsedPiece(square, ChessPiece.of(Color.White, PieceType.Knight));
+                case 'h' -> putParsedPiece(square, ChessPiece.of(Color.Black, PieceType.Knight));
+                case 'K' -> putParsedPiece(square, ChessPiece.of(Color.White, PieceType.King));
+                case 'k' -> putParsedPiece(square, ChessPiece.of(Color.Black, PieceType.King));
+                case 'Q' -> putParsedPiece(square, ChessPiece.of(Color.White, PieceType.Queen));
+                case 'q' -> putParsedPiece(square, ChessPiece.of(Color.Black, PieceType.Queen));
+                case '-' -> removePiece(square);
 
             }
         }
+        updateCastlingRights();
+        attackMap.invalidate();
     }
 
+    /**
+     * puts a piece that was read from a board string or a FEN, the castling rights are calculated after all the pieces
+     * are put (see "updateCastlingRights")
+     */
+    void putParsedPiece(int square, ChessPiece piece) {
+        putPiece(square, piece);
+        attackMap.invalidate();
+    }
 
     /**
-     * This constructor is meant for testing a board after a move, and if the new board is not a valid one, it will be easy to reverse the changes
+     * a pawn moves two steps only from its starting row, or from behind it (a pawn put there in a set up position)
      *
-     * @param board  a board to copy
-     * @param start  The place piece you want to move without conditions
-     * @param finish The place you want to move the piece
-     */
-    private TwoPlayerChessBoard(TwoPlayerChessBoard board, Place start, Place finish) {
-        pieces = new ChessPiece[8][8];
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (board.getPieceInPlace(i, j) != null)
-                    this.pieces[i][j] = board.getPieceInPlace(i, j).clone();
-                else
-                    this.pieces[i][j] = null;
-            }
-        }
+     * @return true if a {@param color} pawn in {@param row} did not pass its starting row
+     */
+    public static boolean canPawnMoveTwoSteps(Color color, int row) {
+        return color == Color.White ? row >= 6 : row <= 1;
+    }
 
-        this.blackKingPlace = board.blackKingPlace;
-        this.whiteKingPlace = board.whiteKingPlace;
-        moveAPiece(start, finish, () -> 'Q');
+    /**
+     * @return the castling rights bit of {@param color} on the king side or on the queen side
+     */
+    public static int castlingRight(Color color, boolean kingSide) {
+        if (color == Color.White)
+            return kingSide ? WHITE_KING_SIDE : WHITE_QUEEN_SIDE;
+        return kingSide ? BLACK_KING_SIDE : BLACK_QUEEN_SIDE;
     }
 
+
     // Methods
 
     private void validBoardPlace(Place place) {
-        if (place.getRow() > 7 | place.getColumn() < 0 | place.getRow() < 0 | place.getColumn() > 7)
+        if (place == null || place.getRow() > 7 | place.getColumn() < 0 | place.getRow() < 0 | place.getColumn() > 7)
             throw new IllegalArgumentException(MessagesLibrary.INVALID_CHOICE);
     }
 
     /**
-     * design pattern visitor.
-     * this function calls piece.isLegalPieceMovement, which returns true if the certain piece is allow to move to this place (by movement rules only)
+     * checks the move against the legal moves of the piece in {@param start}, calculated by the {@link MoveGenerator}
      */
     public boolean isLegalMove(Place start, Place finish, Color playerColor) {
         validBoardPlace(start);
         validBoardPlace(finish);
         if (getPieceInPlace(start) == null || getPieceInPlace(start).getColor() != playerColor)
             return false;
-        ChessPiece piece = getPieceInPlace(start);
 
-        boolean legalMovement = piece.isLegalPieceMove(start, finish, this);
-        if (legalMovement) {
-            boolean notCauseASelfCheck = !new TwoPlayerChessBoard(this, start, finish).isKingThreaten(playerColor); // checking that the move is legal for the piece, and that the king is not threaten
-            return notCauseASelfCheck;
-        }
-        return false;
+        return Bitboards.contains(moveGenerator.legalDestinations(Bitboards.square(start)), Bitboards.square(finish));
     }
 
+    /**
+     * @return the attack map of the position, for the {@link MoveGenerator}
+     */
+    AttackMap attackMap() {
+        return attackMap;
+    }
 
-    public boolean isLegalPieceMovement(Place start, Place finish, Pawn pawn) {
-        Direction direction;
+    /**
+     * @return the generator of the legal moves of this board
+     */
+    public MoveGenerator getMoveGenerator() {
+        return moveGenerator;
+    }
+
+    /**
+     * makes the move, checks the king and takes the move back, so the board stays the same
+     *
+     * @return true if the {@param kingColor} king is threatened after moving the piece from {@param start} to {@param finish}
+     */
+    private boolean isKingThreatenAfterMove(Place start, Place finish, Color kingColor) {
+        makeMove(start, finish, () -> 'Q', probeUndo);
         try {
-            direction = Place.calculateDirection(start, finish);
+            return isKingThreaten(kingColor);
+        } finally {
+            unmakeMove(probeUndo);
+        }
+    }
+
+
+    /**
+     * checks only the way {@param piece} moves: the pawns and the kings by their rules, the other pieces by their
+     * attacks (see {@link AttackTables#attacks}). A king move that leaves the king threatened is not legal, the moves
+     * of the other pieces can still leave the king threatened
+     *
+     * @param piece the piece in {@param start}
+     */
+    public boolean isLegalPieceMovement(Place start, Place finish, ChessPiece piece) {
+        return switch (piece.getType()) {
+            case Pawn -> isLegalPawnMovement(start, finish, piece);
+            case King -> isLegalKingMovement(start, finish, piece);
+            default -> isInAttacksAndNotOnAllies(AttackTables.attacks(piece.getType(), piece.getColor(), Bitboards.square(start), occupied), finish, piece.getColor());
+        };
+    }
 
-        } catch (Exception e) {
+    private boolean isLegalPawnMovement(Place start, Place finish, ChessPiece pawn) {
+        Direction direction = Place.findDirection(start, finish);
+        if (direction == Direction.None)
             return false;
-        }
 
         int rowDifferent = Place.calculateRowDistance(start, finish);
 
@@ -161,12 +267,12 @@ public class TwoPlayerChessBoard {
             case Up:
             case Down:
 
-                if (isThereAPieceBetween(start, finish, direction, true))
+                if (isThereAPieceBetween(start, finish, true))
                     return false;
 
                 switch (rowDifferent) {
                     case 2:
-                        if (pawn.hasMoved())
+                        if (!canPawnMoveTwoSteps(pawn.getColor(), start.getRow()))
                             return false;
                     case 1:
                         return (pawn.getColor() == Color.White && direction.equals(Direction.Up)) ||
@@ -193,107 +299,253 @@ public class TwoPlayerChessBoard {
         }
     }
 
-    public boolean isLegalPieceMovement(Place start, Place finish, Rook rook) {
-        return fullRunnerIsLegalPieceMovement(start, finish, fullRunnerValidMovementDirectionsMap.get(Rook.class));
+    private boolean isLegalKingMovement(Place start, Place finish, ChessPiece king) {
+        Direction direction = Place.findDirection(start, finish);
+        if (direction == Direction.None)
+            return false;
+        Color opponentColor = getOpponentColor(king.getColor());
+        int rowDistance = Place.calculateRowDistance(start, finish);
+        int columnDistance = Place.calculateColumnDistance(start, finish);
+        if (rowDistance > 1 || columnDistance > 2 || direction == Direction.Knight)
+            return false;
+
+        // castling
+        if (columnDistance == 2) {
+            if ((castlingRights & castlingRight(king.getColor(), direction == Direction.Right)) == 0)
+                return false;
+            Place rookPlace = Place.getPlace(start.getRow(), direction == Direction.Right ? 7 : 0);
+            Place startPlusOne = start.move(direction);
+            return !isThereAPieceBetween(start, rookPlace, false) && !isPlaceThreatenByAColor(startPlusOne, opponentColor) && !isPlaceThreatenByAColor(finish, opponentColor) && !isPlaceThreatenByAColor(start, opponentColor);
+        }
+        boolean legalMove = isInAttacksAndNotOnAllies(AttackTables.king(Bitboards.square(start)), finish, king.getColor()) && !isPlaceThreatenByAColor(finish, opponentColor);
+        return legalMove && !isKingThreatenAfterMove(start, finish, king.getColor());
     }
 
+    /**
+     * @param attacks the squares a piece attacks, from {@link AttackTables}
+     * @param finish  where the piece wants to go
+     * @param color   the color of the piece
+     * @return true if {@param finish} is attacked by the piece and is not taken by a piece of the same color
+     */
+    private boolean isInAttacksAndNotOnAllies(long attacks, Place finish, Color color) {
+        return Bitboards.contains(attacks & ~occupancy(color), Bitboards.square(finish));
+    }
 
-    public boolean isLegalPieceMovement(Place start, Place finish, Knight knight) {
-        try {
-            boolean landingOnAllies = getPieceInPlace(finish) != null && getPieceInPlace(finish).getColor() == knight.getColor();
-            boolean legalDirection = Place.calculateDirection(start, finish) == Direction.Knight;
-            return !landingOnAllies && legalDirection;
-        } catch (Exception e) {
-            return false;
-        }
+    /**
+     * @param start        The current Place of a piece you want to move
+     * @param finish       Where you want to move the piece, on the same line as "start"
+     * @param toIncludeEnd When true the function will check if there is a piece between and start and finish, or in finish, and when false the function will check if there is a piece between and start and finish not care about what in finish
+     * @return true if there is a piece between "start" and "finish" not excluding start.
+     */
+    private boolean isThereAPieceBetween(Place start, Place finish, boolean toIncludeEnd) {
+        long path = Bitboards.between(Bitboards.square(start), Bitboards.square(finish));
+        if (toIncludeEnd)
+            path |= Bitboards.bit(Bitboards.square(finish));
+        return (occupied & path) != 0;
+    }
+
+    public ChessPiece getPieceInPlace(Place place) {
+        return squares[Bitboards.square(place)];
+    }
 
+    public ChessPiece getPieceInPlace(int row, int column) {
+        return squares[Bitboards.square(row, column)];
     }
 
-    public boolean isLegalPieceMovement(Place start, Place finish, Bishop piece) {
-        return fullRunnerIsLegalPieceMovement(start, finish, fullRunnerValidMovementDirectionsMap.get(Bishop.class));
+    /**
+     * @return the index of the bitboard of the {@param type} pieces of {@param color} in "pieceBitboards"
+     */
+    private static int pieceIndex(Color color, PieceType type) {
+        return color.ordinal() * PieceType.COUNT + type.ordinal();
     }
 
-    public boolean isLegalPieceMovement(Place start, Place finish, Queen piece) {
-        return fullRunnerIsLegalPieceMovement(start, finish, fullRunnerValidMovementDirectionsMap.get(Queen.class));
+    /**
+     * @return a bitboard of all the {@param type} pieces of {@param color}
+     */
+    public long pieces(Color color, PieceType type) {
+        return pieceBitboards[pieceIndex(color, type)];
+    }
 
+    /**
+     * @return a bitboard of all the squares taken by {@param color}
+     */
+    public long occupancy(Color color) {
+        return colorOccupancy[color.ordinal()];
     }
 
+    /**
+     * @return a bitboard of all the taken squares
+     */
+    public long occupied() {
+        return occupied;
+    }
 
-    public boolean isLegalPieceMovement(Place start, Place finish, King king) {
-        Direction direction;
-        try {
-            direction = Place.calculateDirection(start, finish);
+    /**
+     * @return the Zobrist hash of the position: the pieces, the castling rights and the side to move.
+     * It is kept up to date by every move, so it costs nothing to get
+     */
+    public long hash() {
+        return hash;
+    }
 
-        } catch (Exception e) {
-            return false;
-        }
-        Color opponentColor = getOpponentColor(king.getColor());
-        int rowDistance = Place.calculateRowDistance(start, finish);
-        int columnDistance = Place.calculateColumnDistance(start, finish);
-        if (rowDistance > 1 || columnDistance > 2 || direction == Direction.Knight)
-            return false;
+    /**
+     * @return the value of the {@param color} pieces, see {@link PieceSquareTables#PIECE_VALUES}
+     */
+    public int getMaterial(Color color) {
+        return material[color.ordinal()];
+    }
 
-        // castling
-        if (columnDistance == 2) {
-            if (king.hasMoved())
-                return false;
-            ChessPiece rook = direction == Direction.Right ? getPieceInPlace(start.getRow(), 7) : getPieceInPlace(start.getRow(), 0);
-            Place startPlusOne = start.move(direction);
-            return rook instanceof Rook && !rook.hasMoved() && !isThereAPieceBetween(start, finish, direction, true) && !isPlaceThreatenByAColor(startPlusOne, opponentColor) && !isPlaceThreatenByAColor(finish, opponentColor) && !isPlaceThreatenByAColor(start, opponentColor);
+    /**
+     * @return the middle game score of the pieces on their squares (with their values), positive when white is better
+     */
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    /**
+     * @return the end game score of the pieces on their squares (with their values), positive when white is better
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return the game phase, {@link PieceSquareTables#MAX_PHASE} with all the pieces on the board, 0 with only kings and pawns
+     * (it can be more than the maximum after promotions)
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the color that makes the next move, every move made on the board passes the turn to the other color
+     */
+    public Color getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * @return the moves (of both colors) since the last capture or pawn move, for the fifty moves rule
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the move, it starts at 1 and goes up after every black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return the castling rights bits ({@link #WHITE_KING_SIDE}, {@link #WHITE_QUEEN_SIDE}, {@link #BLACK_KING_SIDE}
+     * and {@link #BLACK_QUEEN_SIDE}), a right is on while the king and the rook of that side did not move (and the rook
+     * was not captured), so the king and the rook of a right are on their starting places
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * takes all the pieces off the board and makes it white to move, for {@link Fen} to set up a position on a board
+     * that is used again
+     */
+    void clear() {
+        for (long pieces = occupied; pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces))
+            removePiece(Bitboards.firstSquare(pieces));
+        updateCastlingRights();
+        attackMap.invalidate();
+        if (sideToMove == Color.Black) {
+            sideToMove = Color.White;
+            hash ^= Zobrist.side();
         }
-        boolean legalMove = fullRunnerIsLegalPieceMovement(start, finish, fullRunnerValidMovementDirectionsMap.get(Queen.class)) && !isPlaceThreatenByAColor(finish, getOpponentColor(king.getColor())); // we use the queen class because king and queen can move the same direction, and we checked that the king don't move 2 steps
-        boolean kingIsInCheckInNewPlace = new TwoPlayerChessBoard(this, start, finish).isKingThreaten(king.getColor());
-        return legalMove && !kingIsInCheckInNewPlace;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        plies = 0;
     }
 
     /**
-     * Checks if a full runner piece ,who start in "start" can go to "finish" using the "validDirectionsForPieceType"
-     * note : there is no checking that the piece in start is not null and a full runner!
+     * ends setting up a position after the pieces were put with "putParsedPiece"
      *
-     * @param start           piece start place
-     * @param finish          piece start place
-     * @param validDirections The direction the piece is allows  to move
-     * @return true if it's a legal movement
+     * @param castlingRights the rights to keep (a right of a king or a rook that is not on its starting place is lost anyway)
      */
-    private boolean fullRunnerIsLegalPieceMovement(Place start, Place finish, Set<Direction> validDirections) {
-        Direction direction;
-        try {
-            direction = Place.calculateDirection(start, finish);
-
-        } catch (Exception e) {
-            return false;
+    void finishSetUp(Color sideToMove, int castlingRights, int halfmoveClock, int fullmoveNumber) {
+        updateCastlingRights();
+        setCastlingRights(this.castlingRights & castlingRights);
+        if (sideToMove != this.sideToMove) {
+            this.sideToMove = sideToMove;
+            hash ^= Zobrist.side();
         }
-        ChessPiece piece = getPieceInPlace(start);
-        boolean validateRoute = validDirections.contains(direction) && !isThereAPieceBetween(start, finish, direction, false);
-        boolean emptyPlaceOrDifferentColor = getPieceInPlace(finish) == null || getPieceInPlace(finish).getColor() != piece.getColor();
-        return validateRoute & emptyPlaceOrDifferentColor;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
     }
 
     /**
-     * @param start        The current Place of a piece you want to move
-     * @param finish       Where you want to move the piece
-     * @param direction    the direction between "start" and "finish", can be calculated by "calculateDirection"
-     * @param toIncludeEnd When true the function will check if there is a piece between and start and finish, or in finish, and when false the function will check if there is a piece between and start and finish not care about what in finish
-     * @return true if there is a piece between "start" and "finish" not excluding start.
+     * calculates the castling rights of a position that was set up: every king on its starting place has the rights
+     * of the rooks in the corners of its row, as if they did not move
      */
-    private boolean isThereAPieceBetween(Place start, Place finish, Direction direction, boolean toIncludeEnd) {
-        start = start.move(direction);
-        while (!start.equals(finish)) {
-            if (getPieceInPlace(start) != null)
-                return true;
-            else
-                start = start.move(direction);
+    private void updateCastlingRights() {
+        int rights = 0;
+        for (Color color : new Color[]{Color.White, Color.Black}) {
+            int row = color == Color.White ? 7 : 0;
+            if (squares[Bitboards.square(row, 4)] != ChessPiece.of(color, PieceType.King))
+                continue;
+            if (squares[Bitboards.square(row, 7)] == ChessPiece.of(color, PieceType.Rook))
+                rights |= castlingRight(color, true);
+            if (squares[Bitboards.square(row, 0)] == ChessPiece.of(color, PieceType.Rook))
+                rights |= castlingRight(color, false);
         }
+        setCastlingRights(rights);
+    }
 
-        return toIncludeEnd ? getPieceInPlace(finish) != null : false;
+    /**
+     * puts {@param rights} in the hash instead of the old rights
+     */
+    private void setCastlingRights(int rights) {
+        hash ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+        castlingRights = rights;
     }
 
-    public ChessPiece getPieceInPlace(Place place) {
-        return pieces[place.getRow()][place.getColumn()];
+    /**
+     * put {@param piece} on {@param square} and update the bitboards, if there is a piece in the square it is removed
+     */
+    private void putPiece(int square, ChessPiece piece) {
+        removePiece(square);
+        long bit = Bitboards.bit(square);
+        int index = pieceIndex(piece.getColor(), piece.getType());
+        pieceBitboards[index] |= bit;
+        hash ^= Zobrist.piece(index, square);
+        material[piece.getColor().ordinal()] += PieceSquareTables.PIECE_VALUES[piece.getType().ordinal()];
+        middlegameScore += PieceSquareTables.middlegame(index, square);
+        endgameScore += PieceSquareTables.endgame(index, square);
+        phase += PieceSquareTables.phaseWeight(piece.getType());
+        colorOccupancy[piece.getColor().ordinal()] |= bit;
+        occupied |= bit;
+        squares[square] = piece;
     }
 
-    public ChessPiece getPieceInPlace(int row, int column) {
-        return pieces[row][column];
+    /**
+     * remove the piece from {@param square} and update the bitboards
+     *
+     * @return the removed piece, or null if the square was empty
+     */
+    private ChessPiece removePiece(int square) {
+        ChessPiece piece = squares[square];
+        if (piece != null) {
+            long bit = Bitboards.bit(square);
+            int index = pieceIndex(piece.getColor(), piece.getType());
+            pieceBitboards[index] &= ~bit;
+            hash ^= Zobrist.piece(index, square);
+            material[piece.getColor().ordinal()] -= PieceSquareTables.PIECE_VALUES[piece.getType().ordinal()];
+            middlegameScore -= PieceSquareTables.middlegame(index, square);
+            endgameScore -= PieceSquareTables.endgame(index, square);
+            phase -= PieceSquareTables.phaseWeight(piece.getType());
+            colorOccupancy[piece.getColor().ordinal()] &= ~bit;
+            occupied &= ~bit;
+            squares[square] = null;
+        }
+        return piece;
     }
 
 
@@ -305,22 +557,162 @@ public class TwoPlayerChessBoard {
      * @param promotionLetterSupplier in case of a promotion, the supplier should give the letter of the piece he wants to promote to
      */
     public void moveAPiece(Place start, Place finish, Supplier<Character> promotionLetterSupplier) {
-        ChessPiece piece = getPieceInPlace(start);
-        if (piece instanceof King) {
-            moveAKing(start, finish, (King) piece);
+        makeMove(start, finish, promotionLetterSupplier, new MoveUndo());
+    }
+
+    /**
+     * like "moveAPiece" with places, for a {@link Move}
+     */
+    public void moveAPiece(int move) {
+        moveAPiece(Bitboards.toPlace(Move.from(move)), Bitboards.toPlace(Move.to(move)), Move.promotionLetter(move));
+    }
+
+    /**
+     * like "makeMove" with places, for a {@link Move}
+     */
+    public void makeMove(int move, MoveUndo undo) {
+        makeMove(Bitboards.toPlace(Move.from(move)), Bitboards.toPlace(Move.to(move)), Move.promotionLetter(move), undo);
+    }
+
+    /**
+     * This function move the piece on the board, without validating rules, and remember in {@param undo} how to take the move back
+     *
+     * @param start                   where the piece at
+     * @param finish                  where to move it
+     * @param promotionLetterSupplier in case of a promotion, the supplier should give the letter of the piece he wants to promote to
+     * @param undo                    a record to fill, pass it to "unmakeMove" to take the move back
+     */
+    public void makeMove(Place start, Place finish, Supplier<Character> promotionLetterSupplier, MoveUndo undo) {
+        int from = Bitboards.square(start), to = Bitboards.square(finish);
+        ChessPiece piece = squares[from];
+        undo.from = from;
+        undo.to = to;
+        undo.movedPiece = piece;
+        undo.capturedPiece = squares[to];
+        undo.rookFrom = MoveUndo.NO_SQUARE;
+        undo.hash = hash;
+        undo.castlingRights = castlingRights;
+        undo.halfmoveClock = halfmoveClock;
+        PieceType type = piece.getType();
+        halfmoveClock = type == PieceType.Pawn || undo.capturedPiece != null ? 0 : halfmoveClock + 1;
+        hashHistory[plies++ & (HISTORY_SIZE - 1)] = hash;
+        if (sideToMove == Color.Black)
+            fullmoveNumber++;
+        if (type == PieceType.King) {
+            moveAKing(start, finish, undo);
         }
-        if ((piece instanceof Pawn) && isPromotionNeeded(finish, (Pawn) piece))
+        if (type == PieceType.Pawn && isPromotionNeeded(finish, piece.getColor()))
             piece = getPromotionPiece(piece.getColor(), promotionLetterSupplier);
-        piece.moved();
-        pieces[finish.getRow()][finish.getColumn()] = piece;
-        pieces[start.getRow()][start.getColumn()] = null;
+        removePiece(from);
+        putPiece(to, piece);
+        // a move from the place of a king or a rook loses its rights, and so does a capture of a rook in its corner
+        if ((castlingRights & ~(CASTLING_MASKS[from] & CASTLING_MASKS[to])) != 0)
+            setCastlingRights(castlingRights & CASTLING_MASKS[from] & CASTLING_MASKS[to]);
+        sideToMove = getOpponentColor(sideToMove);
+        hash ^= Zobrist.side();
+        attackMap.update(changedSquares(undo));
+    }
+
+    /**
+     * take back a move, the move must be the last move that was made on the board
+     *
+     * @param undo the record that was filled by "makeMove"
+     */
+    public void unmakeMove(MoveUndo undo) {
+        removePiece(undo.to);
+        if (undo.capturedPiece != null)
+            putPiece(undo.to, undo.capturedPiece);
+        putPiece(undo.from, undo.movedPiece);
+
+        if (undo.rookFrom != MoveUndo.NO_SQUARE)
+            putPiece(undo.rookFrom, removePiece(undo.rookTo));
+        sideToMove = getOpponentColor(sideToMove);
+        halfmoveClock = undo.halfmoveClock;
+        plies--;
+        if (sideToMove == Color.Black)
+            fullmoveNumber--;
+        // the pieces put back fixed the hash already, but not the castling rights
+        hash = undo.hash;
+        castlingRights = undo.castlingRights;
+        attackMap.update(changedSquares(undo));
+    }
+
+    /**
+     * @return the squares a move (or taking it back) put a piece on or took a piece from
+     */
+    private static long changedSquares(MoveUndo undo) {
+        long changed = Bitboards.bit(undo.from) | Bitboards.bit(undo.to);
+        if (undo.rookFrom != MoveUndo.NO_SQUARE)
+            changed |= Bitboards.bit(undo.rookFrom) | Bitboards.bit(undo.rookTo);
+        return changed;
+    }
+
+    /**
+     * passes the turn without moving a piece, used by the search to check if a position is so good that even a free move
+     * for the opponent does not help it (null move pruning). Must be taken back with "unmakeNullMove".
+     * No position before a null move counts as a repetition of a position after it
+     *
+     * @param undo a record to fill, pass it to "unmakeNullMove"
+     */
+    public void makeNullMove(MoveUndo undo) {
+        undo.halfmoveClock = halfmoveClock;
+        halfmoveClock = 0;
+        hashHistory[plies++ & (HISTORY_SIZE - 1)] = hash;
+        sideToMove = getOpponentColor(sideToMove);
+        hash ^= Zobrist.side();
+    }
+
+    public void unmakeNullMove(MoveUndo undo) {
+        sideToMove = getOpponentColor(sideToMove);
+        hash ^= Zobrist.side();
+        plies--;
+        halfmoveClock = undo.halfmoveClock;
+    }
+
+    /**
+     * looks back only to the last capture or pawn move (no position before it can come again), and only at the
+     * positions with the same side to move, so it reads at most half of the fifty moves window
+     *
+     * @return how many times the position on the board was on it before
+     */
+    public int countRepetitions() {
+        int count = 0;
+        for (int back = 2; back <= repetitionWindow(); back += 2) {
+            if (hashHistory[(plies - back) & (HISTORY_SIZE - 1)] == hash)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * like "countRepetitions", stops at the first repetition
+     *
+     * @return true if the position on the board was on it before
+     */
+    public boolean isRepetition() {
+        for (int back = 2; back <= repetitionWindow(); back += 2) {
+            if (hashHistory[(plies - back) & (HISTORY_SIZE - 1)] == hash)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if there was no capture and no pawn move in the last fifty moves of every color
+     */
+    public boolean isFiftyMovesDraw() {
+        return halfmoveClock >= FIFTY_MOVES_PLIES;
+    }
+
+    private int repetitionWindow() {
+        return Math.min(Math.min(halfmoveClock, plies), HISTORY_SIZE);
     }
 
     /**
      * this function checks if a pawn gets to the end of the board
      */
-    private boolean isPromotionNeeded(Place finish, Pawn pawn) {
-        return pawn.getColor().equals(Color.White) && finish.getRow() == 0 || pawn.getColor().equals(Color.Black) && finish.getRow() == 7;
+    private boolean isPromotionNeeded(Place finish, Color pawnColor) {
+        return pawnColor == Color.White && finish.getRow() == 0 || pawnColor == Color.Black && finish.getRow() == 7;
     }
 
     /**
@@ -331,154 +723,127 @@ public class TwoPlayerChessBoard {
      * @return The new piece which the player decided to promote the pawn to
      */
     private ChessPiece getPromotionPiece(Color color, Supplier<Character> supplier) {
-        ChessPiece piece;
+        PieceType type;
         Character character = supplier.get();
         if (character == 'R' || character == 'r') {
-            piece = new Rook(color);
+            type = PieceType.Rook;
         } else if (character == 'K' || character == 'k') {
-            piece = new Knight(color);
+            type = PieceType.Knight;
         } else if (character == 'B' || character == 'b') {
-            piece = new Bishop(color);
+            type = PieceType.Bishop;
         } else if (character == 'Q' || character == 'q') {
-            piece = new Queen(color);
+            type = PieceType.Queen;
         } else {
             throw new RuntimeException(MessagesLibrary.INVALID_CHOICE);
         }
-        return piece;
+        return ChessPiece.of(color, type);
     }
 
     /**
-     * this function should only be called from "moveAPiece", This function is continuation of special case of movingAPiece
-     * and should handle a king movement
+     * this function should only be called from "makeMove", This function is continuation of special case of movingAPiece
+     * and should handle a king movement, the castling rook move is written to {@param undo}
      */
-    private void moveAKing(Place start, Place finish, King king) {
-        Direction direction = Place.calculateDirection(start, finish); // will throw exception if it is illegal move
-        if (king.getColor() == Color.Black)
-            blackKingPlace = finish;
-        else
-            whiteKingPlace = finish;
+    private void moveAKing(Place start, Place finish, MoveUndo undo) {
+        Direction direction = Place.findDirection(start, finish);
 
         // castling
         if (Place.calculateColumnDistance(start, finish) == 2) {
+            int row = start.getRow();
             if (direction == Direction.Left) {
-                pieces[start.getRow()][start.getColumn() - 1] = pieces[start.getRow()][0];
-                pieces[start.getRow()][0] = null;
-                pieces[start.getRow()][start.getColumn() - 1].moved();
+                undo.rookFrom = Bitboards.square(row, 0);
+                undo.rookTo = Bitboards.square(row, start.getColumn() - 1);
             } else if (direction == Direction.Right) {
-                pieces[start.getRow()][start.getColumn() + 1] = pieces[start.getRow()][7];
-                pieces[start.getRow()][7] = null;
-                pieces[start.getRow()][start.getColumn() + 1].moved();
+                undo.rookFrom = Bitboards.square(row, 7);
+                undo.rookTo = Bitboards.square(row, start.getColumn() + 1);
             }
+            if (undo.rookFrom != MoveUndo.NO_SQUARE)
+                putPiece(undo.rookTo, removePiece(undo.rookFrom));
         }
 
     }
 
     private boolean isKingThreaten(Color kingColor) {
-        Place kingPlace = getKingPlace(kingColor);
-        return isPlaceThreatenByAColor(kingPlace, getOpponentColor(kingColor));
+        return moveGenerator.isInCheck(kingColor);
     }
 
     /**
-     * @param place the place you want to check if the {@param color} can move to
-     * @param color the color of the piece you want to check if they can move to {@param place}
-     * @return true if a piece of {@param color} can move to {@param place}
+     * @param place a place you want to check if is threatened by the color
+     * @param color the color that you want to check if he is threatening the place
+     * @return true if the color is threatened on the place, false otherwise
      */
-    private boolean canColorMoveToPlace(Place place, Color color) {
-        boolean canKingMoveToPlace = getPieceInPlace(getKingPlace(color)).isLegalPieceMove(getKingPlace(color), place, this);
-        boolean canColorMoveToPlaceWithoutMovingItsKing = canColorMoveToPlaceWithoutMovingItsKing(place, color);
-        return canKingMoveToPlace || canColorMoveToPlaceWithoutMovingItsKing;
+    private boolean isPlaceThreatenByAColor(Place place, Color color) {
+        return attackMap.isAttacked(color, Bitboards.square(place));
     }
 
-
     /**
-     * @param place the place you want to check if the {@param color} can move to
-     * @param color the color of the piece you want to check if they can move to {@param place} without he's king
-     * @return true if a piece of {@param color} can move to {@param place}
+     * @return the number of {@param color} pieces that attack {@param place}
      */
-    private boolean canColorMoveToPlaceWithoutMovingItsKing(Place place, Color color) {
-        boolean placeThreaten = false;
-        for (int i = 0; i < 8 & !placeThreaten; i++) {
-            for (int j = 0; j < 8 & !placeThreaten; j++) {
-                Place piecePlace = Place.getPlace(i, j);
-                ChessPiece piece = getPieceInPlace(piecePlace);
-                if (piece == null || piece instanceof King)
-                    continue;
-                else
-                    placeThreaten = piece.getColor() == color && piece.isLegalPieceMove(piecePlace, place, this);
-            }
-        }
-        return placeThreaten;
+    public int countAttackers(Place place, Color color) {
+        return attackMap.count(color, Bitboards.square(place));
     }
 
     /**
-     * @param place a place you want to check if is threatened by the color
-     * @param color the color that you want to check if he is threatening the place
-     * @return true if the color is threatened on the place, false otherwise
+     * @return true if the {@param color} king is attacked, the attacks are read from the attack map
      */
-    private boolean isPlaceThreatenByAColor(Place place, Color color) {
-        Place kingPlace = getKingPlace(color);
-        boolean isKingThreatenThePlace = Place.calculateRowDistance(place, kingPlace) <= 1 && Place.calculateColumnDistance(place, kingPlace) <= 1;
+    public boolean isInCheck(Color color) {
+        long king = pieces(color, PieceType.King);
+        return king != 0 && attackMap.isAttacked(getOpponentColor(color), Bitboards.firstSquare(king));
+    }
 
-        // for all the pieces, but the king, if the piece is threatening the place its means it can go there, for the so we just need to check for the king
-        return isKingThreatenThePlace || canColorMoveToPlaceWithoutMovingItsKing(place, color);
+    private Color getOpponentColor(Color color) {
+        return color == Color.White ? Color.Black : Color.White;
     }
 
+
     /**
-     * this function returns all the Places you can move to prevent the chess.
+     * tells if the game is over with one move generation, that stops at the first legal move it finds, a mate comes
+     * before the draws
      *
-     * @param playerColor the color that in chess
-     * @return A set of Places you can go to prevent the chess
-     */
-    private Set<Place> getPlacesToBlockChess(Color playerColor) {
-        Set<Place> output = null;
-        Place kingPlace = getKingPlace(playerColor);
-        int numOfPieceThreatTheKing = 0;
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                Place piecePlace = Place.getPlace(i, j);
-                ChessPiece piece = getPieceInPlace(piecePlace);
-                if (piece != null && piece.getColor() != playerColor && isLegalMove(piecePlace, kingPlace, getOpponentColor(playerColor))) {  // this piece is threaten the king
-                    numOfPieceThreatTheKing++;
-                    output = Place.getPath(piecePlace, kingPlace);
-                }
-            }
-        }
-        switch (numOfPieceThreatTheKing) {
-            case 0:
-                throw new RuntimeException(MessagesLibrary.NO_CHESS_ERROR);
-            case 1:
-                break;
-            default:
-                output = new HashSet<>();
-        }
-
-        return output;
+     * @param color the color to move
+     * @return the status of the game for {@param color}
+     */
+    public GameStatus status(Color color) {
+        return status(color, moveGenerator.hasLegalMove(color));
     }
 
-
-    private Place getKingPlace(Color color) {
-        return color.equals(Color.White) ? whiteKingPlace : blackKingPlace;
+    /**
+     * like "status", for a user that generated the moves of {@param color} already
+     *
+     * @param hasLegalMove true if {@param color} has a legal move
+     */
+    public GameStatus status(Color color, boolean hasLegalMove) {
+        if (!hasLegalMove)
+            return isInCheck(color) ? GameStatus.Checkmate : GameStatus.Stalemate;
+        if (isInsufficientMaterial())
+            return GameStatus.InsufficientMaterial;
+        if (countRepetitions() >= 2)
+            return GameStatus.ThreefoldRepetition;
+        return isFiftyMovesDraw() ? GameStatus.FiftyMoves : GameStatus.Ongoing;
     }
 
-    private Color getOpponentColor(Color color) {
-        return color == Color.White ? Color.Black : Color.White;
+    /**
+     * @return true if no one can mate: only the kings and one knight or bishop, or bishops that are all on squares of the
+     * same color
+     */
+    private boolean isInsufficientMaterial() {
+        long heavy = Bitboards.EMPTY;
+        for (Color color : new Color[]{Color.White, Color.Black})
+            heavy |= pieces(color, PieceType.Pawn) | pieces(color, PieceType.Rook) | pieces(color, PieceType.Queen);
+        if (heavy != 0)
+            return false;
+        long knights = pieces(Color.White, PieceType.Knight) | pieces(Color.Black, PieceType.Knight);
+        long bishops = pieces(Color.White, PieceType.Bishop) | pieces(Color.Black, PieceType.Bishop);
+        if (Long.bitCount(knights | bishops) <= 1)
+            return true;
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
     }
 
-
     /**
      * @param color the player color we want to check if he is in checkmate (has lost)
      * @return true, if the {@param color} player in checkmate (has lost)
      */
     public boolean isInCheckMate(Color color) {
-
-        if (!isKingThreaten(color))
-            return false;
-
-        for (Place place : getPlacesToBlockChess(color)) {
-            if (canColorMoveToPlace(place, color))
-                return false;
-        }
-        return getKingMovingOptions(color).isEmpty();
+        return status(color) == GameStatus.Checkmate;
     }
 
 
@@ -487,152 +852,24 @@ public class TwoPlayerChessBoard {
      * @return true, if the {@param color} player in pat
      */
     public boolean isInPat(Color color) {
-        for (int i = 0; i < 8; i++)
-            for (int j = 0; j < 8; j++) {
-                ChessPiece piece = getPieceInPlace(i, j);
-
-                //every tool can move always but the pawn and the king
-                if (piece != null && piece.getColor().equals(color) && !(piece instanceof King)) {
-                    if (!(piece instanceof Pawn))
-                        //return false if the player (color) has a piece other than a king and pawns
-                        return false;
-
-                    // check if the pawn can move
-                    int toAdd = color.equals(Color.White) ? -1 : 1; //up for white, down for black
-                    boolean canEatLeft = false, canEatRight = false, canMoveForeword = false;
-                    Place pawnPlace = Place.getPlace(i, j);
-                    if (j > 0)
-                        canEatLeft = isLegalMove(pawnPlace, Place.getPlace(i + toAdd, j - 1), color);
-                    if (j < 7)
-                        canEatRight = isLegalMove(pawnPlace, Place.getPlace(i + toAdd, j + 1), color);
-                    canMoveForeword = isLegalMove(pawnPlace, Place.getPlace(i + toAdd, j), color);
-
-                    if (canEatRight | canEatLeft | canMoveForeword)
-                        return false;
-                }
-            }
-        return getKingMovingOptions(color).isEmpty() && !isKingThreaten(color);
+        return status(color) == GameStatus.Stalemate;
     }
 
-
     /**
-     * @param playerColor the player color you want the moving option of its king
-     * @return returns the places where the king can move
-     */
-    private Collection<Place> getKingMovingOptions(Color playerColor) {
-        Set<Place> canMoveTo = new HashSet<>();
-        Place kingPlace = getKingPlace(playerColor);
-        for (Direction direction : fullRunnerValidMovementDirectionsMap.get(Queen.class)) {
-            try {
-                if (isLegalMove(kingPlace, kingPlace.move(direction), playerColor))
-                    canMoveTo.add(kingPlace.move(direction));
-            } catch (Exception ignored) {
-                // if there is no place on the board in the direction we can ignore (not to add it)
-            }
-        }
-
-        // castling
-        try {
-
-            Place twoToTheLeft = kingPlace.moveLeft().moveLeft();
-            Place twoToTheRight = kingPlace.moveRight().moveRight();
-
-            if (isLegalMove(kingPlace, twoToTheLeft, playerColor))
-                canMoveTo.add(twoToTheLeft);
-
-            if (isLegalMove(kingPlace, twoToTheRight, playerColor))
-                canMoveTo.add(twoToTheRight);
-        } catch (Exception ignore) {
-            // if i got here that's mean that the king is not in his initial place so there cannot be any castling
-        }
-
-
-        return canMoveTo;
-    }
-
-    /**
-     * This function use the visitor pattern
-     *
      * @param src the piece Place which you want the moving option of
      * @return a Collection of Places that the piece from {@param src} can move to
      */
     public Collection<Place> calculateMovingOptions(Place src) {
-        if (getPieceInPlace(src) == null)
-            return new HashSet<>();
-
-        return getPieceInPlace(src).getMovingOptions(src, this);
-    }
-
-    public Collection<Place> calculateMovingOptions(Place src, Pawn piece) {
-        // pawn cannot move as a queen, but all of his possible directions (both black and white) are contained
-        // inside the queen direction.
-        // so when "calculateFullRunnerMovingOptions" invoke on the pawn, he will check all directions
-        return calculateFullRunnerMovingOptions(src, fullRunnerValidMovementDirectionsMap.get(Queen.class));
-    }
-
-    public Collection<Place> calculateMovingOptions(Place src, Rook piece) {
-        return calculateFullRunnerMovingOptions(src, fullRunnerValidMovementDirectionsMap.get(Rook.class));
-    }
-
-    public Collection<Place> calculateMovingOptions(Place src, Knight piece) {
-        Set<Place> canMoveTo = new HashSet<>();
-        for (Place dest : src.calculateKnightJumpOptionFromSrc()) {// get all possible moving options
-            if (isLegalMove(src, dest, piece.getColor()))
-                canMoveTo.add(dest);
-        }
-        return canMoveTo;
-    }
-
-    public Collection<Place> calculateMovingOptions(Place src, Bishop piece) {
-        return calculateFullRunnerMovingOptions(src, fullRunnerValidMovementDirectionsMap.get(Bishop.class));
-    }
-
-    public Collection<Place> calculateMovingOptions(Place src, Queen piece) {
-        return calculateFullRunnerMovingOptions(src, fullRunnerValidMovementDirectionsMap.get(Queen.class));
-    }
-
-    public Collection<Place> calculateMovingOptions(Place src, King piece) {
-        return getKingMovingOptions(piece.getColor());
-    }
-
-    /**
-     * @param src                the source place of the "full runner"
-     * @param possibleDirections The directions the piece in {@param src} can move
-     * @return A set of Places the piece in {@param src} can move to
-     */
-    private Collection<Place> calculateFullRunnerMovingOptions(Place src, Set<Direction> possibleDirections) {
-        Color pieceColor = getPieceInPlace(src).getColor();
         Set<Place> canMoveTo = new HashSet<>();
-
-        for (Direction direction : possibleDirections) {
-            try {
-                Place dest = src.move(direction);
-                while (true) { //we need to check all the options because in check case, we might be able to move the piece to the end of the direction, but not in the middle
-                    if (isLegalMove(src, dest, pieceColor))
-                        canMoveTo.add(dest);
-
-                    dest = dest.move(direction);
-                }
-            } catch (Exception unRelevant) {
-                // this indicates that you got to the end of the board
-            }
-        }
+        for (long destinations = moveGenerator.legalDestinations(Bitboards.square(src)); destinations != 0; destinations = Bitboards.withoutFirstSquare(destinations))
+            canMoveTo.add(Bitboards.toPlace(Bitboards.firstSquare(destinations)));
         return canMoveTo;
     }
 
     public String toString() {
-        StringBuilder output = new StringBuilder();
-        for (ChessPiece[] row :
-                pieces) {
-            for (ChessPiece piece :
-                    row) {
-                if (piece != null)
-                    output.append(piece.toString());
-                else
-                    output.append("-");
-
-            }
-        }
+        StringBuilder output = new StringBuilder(64);
+        for (ChessPiece piece : squares)
+            output.append(piece != null ? piece.getLetter() : '-');
         return output.toString();
     }
 }
@@ -0,0 +1,59 @@
+package Business.Boards;
+
+/**
+ * The random keys of the Zobrist hash of a {@link TwoPlayerChessBoard}.
+ * The hash of a position is the xor of the key of every piece on its square, the key of the castling rights and the
+ * side key when black is the one to move. Since xor takes itself back, a move only has to xor the keys it changes.
+ * The keys come from a fixed seed, so a position gets the same hash on every run (saved books and tables depend on it)
+ */
+public final class Zobrist {
+
+    private static final long[][] PIECE_KEYS = new long[12][64]; // indexed like the piece bitboards of the board, and by the square
+    private static final long[] CASTLING_KEYS = new long[16]; // one key for every combination of the castling rights bits
+    private static final long SIDE_KEY;
+
+    static {
+        long[] seed = {0x2F0B_5A3C_71E4_9D68L};
+        for (long[] keys : PIECE_KEYS)
+            for (int square = 0; square < 64; square++)
+                keys[square] = nextRandom(seed);
+        for (int rights = 0; rights < CASTLING_KEYS.length; rights++)
+            CASTLING_KEYS[rights] = nextRandom(seed);
+        SIDE_KEY = nextRandom(seed);
+    }
+
+    private Zobrist() {
+    } // There Is no need for instances of this class
+
+    /**
+     * @param pieceIndex the index of the piece bitboard, color ordinal * 6 + piece type ordinal
+     * @return the key of that piece standing on {@param square}
+     */
+    static long piece(int pieceIndex, int square) {
+        return PIECE_KEYS[pieceIndex][square];
+    }
+
+    /**
+     * @param castlingRights the castling rights bits, see {@link TwoPlayerChessBoard#getCastlingRights()}
+     */
+    static long castling(int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    /**
+     * @return the key that is in the hash when black is the one to move
+     */
+    static long side() {
+        return SIDE_KEY;
+    }
+
+    /**
+     * splitmix64 random numbers
+     */
+    private static long nextRandom(long[] seed) {
+        long z = (seed[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -6,45 +6,74 @@ import Business.Place;
 
 import java.util.Collection;
 
+/**
+ * A chess piece is only a color and a type, it keeps nothing about the game (the castling rights are kept by the board,
+ * and a pawn can move two steps from its starting row), so there is one shared piece of every color and type (see "of")
+ * and boards can share them. Pieces are compared with ==
+ * The rules of a piece are not in its class: the board and the {@link Business.Boards.MoveGenerator} look up the
+ * moves, the attacks and the values by the type, the classes are kept so a piece can still be told by its class
+ */
 public abstract class ChessPiece {
-    private boolean hasMoved;
-    private Color color;
+    private static final String LETTERS = "PHBRQK"; // by the PieceType ordinal, 'H' for a knight like in the board strings
+    private static final ChessPiece[] PIECES = new ChessPiece[2 * PieceType.COUNT]; // see "of"
 
-    public ChessPiece(Color color){
-        hasMoved =false;
-        this.color = color;
+    static {
+        for (Color color : new Color[]{Color.Black, Color.White}) {
+            int base = color.ordinal() * PieceType.COUNT;
+            PIECES[base + PieceType.Pawn.ordinal()] = new Pawn(color);
+            PIECES[base + PieceType.Knight.ordinal()] = new Knight(color);
+            PIECES[base + PieceType.Bishop.ordinal()] = new Bishop(color);
+            PIECES[base + PieceType.Rook.ordinal()] = new Rook(color);
+            PIECES[base + PieceType.Queen.ordinal()] = new Queen(color);
+            PIECES[base + PieceType.King.ordinal()] = new King(color);
+        }
     }
 
-    public ChessPiece(Color color, boolean hasMoved){
-        this.hasMoved =hasMoved;
+    private final Color color;
+    private final PieceType type;
+    private final char letter; // see "getLetter"
+
+    ChessPiece(Color color, PieceType type) {
         this.color = color;
+        this.type = type;
+        char letter = LETTERS.charAt(type.ordinal());
+        this.letter = color == Color.White ? letter : Character.toLowerCase(letter);
     }
 
-    public abstract boolean isLegalPieceMove(Place start, Place finish, TwoPlayerChessBoard board);
-
-    public void moved(){
-        hasMoved = true;}
-    public boolean hasMoved(){return hasMoved;}
-    public Color getColor() {
-        return color;
+    /**
+     * @return the shared piece of {@param color} and {@param type}
+     */
+    public static ChessPiece of(Color color, PieceType type) {
+        return PIECES[color.ordinal() * PieceType.COUNT + type.ordinal()];
     }
 
+    /**
+     * like {@link TwoPlayerChessBoard#isLegalPieceMovement}, the move can still leave the king threatened
+     */
+    public final boolean isLegalPieceMove(Place start, Place finish, TwoPlayerChessBoard board) {
+        return board.isLegalPieceMovement(start, finish, this);
+    }
 
-    @Override
-    public boolean equals(Object obj) {
-        return this.getClass().equals(obj.getClass()) && this.hasMoved == ((ChessPiece) obj).hasMoved && this.color == ((ChessPiece) obj).color;
+    public final Collection<Place> getMovingOptions(Place src, TwoPlayerChessBoard board) {
+        return board.calculateMovingOptions(src);
     }
 
-    public abstract ChessPiece clone();
+    public final Color getColor() {
+        return color;
+    }
 
+    public final PieceType getType() {
+        return type;
+    }
 
-    public abstract Collection<Place> getMovingOptions(Place src, TwoPlayerChessBoard board);
+    /**
+     * @return the letter of the piece in the board strings, upper case for white and lower case for black
+     */
+    public final char getLetter() {
+        return letter;
+    }
 
-    public String toString(){
-        String className = this.getClass().getSimpleName();
-        if (className.equals("Knight")){
-            return getColor() == Color.White ? "H" : "h";
-        }
-        return getColor() == Color.White ? className.substring(0,1) : className.substring(0,1).toLowerCase();
+    public String toString() {
+        return String.valueOf(letter);
     }
 }
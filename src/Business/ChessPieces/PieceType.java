@@ -0,0 +1,20 @@
+package Business.ChessPieces;
+
+/**
+ * The kinds of chess pieces.
+ * The order of the values is used by the board to index its bitboards, so do not change it
+ */
+public enum PieceType {
+    Pawn, Knight, Bishop, Rook, Queen, King;
+
+    private static final PieceType[] TYPES = values(); // "values" copies the array on every call
+
+    public static final int COUNT = TYPES.length;
+
+    /**
+     * @return the type with {@param ordinal}
+     */
+    public static PieceType of(int ordinal) {
+        return TYPES[ordinal];
+    }
+}
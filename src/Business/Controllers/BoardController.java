@@ -2,6 +2,7 @@ package Business.Controllers;
 
 
 import Business.Boards.TwoPlayerChessBoard;
+import Business.Engine.BotPlayer;
 import Business.GameManager;
 import srv.api.UserMessageReceiver;
 
@@ -32,6 +33,16 @@ public class BoardController {
 
     }
 
+    /**
+     * starts a game of {@param userMessageReceiver} (white) against a {@link BotPlayer} (black), there is no need to wait for an opponent
+     */
+    public GameManager startBotGame(UserMessageReceiver userMessageReceiver) {
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard();
+        GameManager botGameManager = new GameManager(board, userMessageReceiver);
+        botGameManager.start(new BotPlayer(board, botGameManager));
+        return botGameManager;
+    }
+
     private void resetVariables() {
         gameManager = null;
         player1 = null;
@@ -0,0 +1,115 @@
+package Business.Engine;
+
+import Business.Boards.Bitboards;
+import Business.Boards.Move;
+import Business.Boards.MoveList;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.Color;
+import Business.GameManager;
+import srv.api.UserMessageReceiver;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A computer player. It gets the messages of the game like any other player, and when the board it gets has its color
+ * to move, it searches a move and plays it with two clicks, the same way a user does.
+ * All the bots think on one pool with a thread for every core, and share one {@link TranspositionTable}, so many games
+ * can run on one machine without a thread for every game.
+ * In the known openings the bot plays from the {@link OpeningBook} without searching, the book file is "book.bin" in the
+ * working directory, or the path in the "chess.book" system property
+ */
+public class BotPlayer implements UserMessageReceiver {
+
+    public static final long DEFAULT_THINK_MILLIS = 1000;
+    public static final int DEFAULT_MAX_DEPTH = 32;
+    private static final int SHARED_TABLE_MEGABYTES = 64;
+
+    private static final ExecutorService THINKERS = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+        Thread thread = new Thread(runnable, "bot-thinker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final TranspositionTable SHARED_TABLE = new TranspositionTable(SHARED_TABLE_MEGABYTES);
+    private static final OpeningBook BOOK = OpeningBook.openIfExists(Path.of(System.getProperty("chess.book", "book.bin")));
+
+    private final TwoPlayerChessBoard gameBoard; // the board of the game, only read while the game thread calls the bot
+    private final GameManager gameManager;
+    private final long thinkMillis;
+    private final int maxDepth;
+    private volatile Color color = Color.None;
+    private volatile boolean finished;
+
+    public BotPlayer(TwoPlayerChessBoard gameBoard, GameManager gameManager) {
+        this(gameBoard, gameManager, DEFAULT_THINK_MILLIS, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param gameBoard   the board the game is played on
+     * @param thinkMillis how long to search every move
+     * @param maxDepth    the depth to stop the search at, even if there is time left
+     */
+    public BotPlayer(TwoPlayerChessBoard gameBoard, GameManager gameManager, long thinkMillis, int maxDepth) {
+        this.gameBoard = gameBoard;
+        this.gameManager = gameManager;
+        this.thinkMillis = thinkMillis;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public <K> void receiveCollection(Collection<K> calculateMovingOptions, short opcode) {
+        // the bot knows its moves
+    }
+
+    @Override
+    public void receiveMoves(MoveList moves) {
+    }
+
+    @Override
+    public void receiveMsg(String s) {
+    }
+
+    /**
+     * called by the game after every move, the board is copied here, while the game waits, and searched on another thread
+     */
+    @Override
+    public void receiveBoardAsString(String boardString) {
+        if (finished || gameBoard.getSideToMove() != color)
+            return;
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(gameBoard);
+        THINKERS.execute(() -> play(board));
+    }
+
+    private void play(TwoPlayerChessBoard board) {
+        int move = bookMove(board);
+        if (move == Move.NONE)
+            move = new Search(board, SHARED_TABLE).search(maxDepth, thinkMillis).getMove();
+        if (finished || move == Move.NONE)
+            return;
+        gameManager.userMove(move, this); // not two clicks, they would promote to a queen whatever the search picked
+    }
+
+    /**
+     * @return a legal move from the book for the position on {@param board}, or {@link Move#NONE}
+     */
+    private static int bookMove(TwoPlayerChessBoard board) {
+        if (BOOK == null)
+            return Move.NONE;
+        int move = BOOK.pickMove(board.hash());
+        boolean legal = move != Move.NONE && Bitboards.contains(board.occupancy(board.getSideToMove()), Move.from(move))
+                && Bitboards.contains(board.getMoveGenerator().legalDestinations(Move.from(move)), Move.to(move));
+        return legal ? move : Move.NONE;
+    }
+
+    @Override
+    public void gameFinishCallback() {
+        finished = true;
+    }
+
+    @Override
+    public void receiveColor(Color color) {
+        this.color = color;
+    }
+}
@@ -0,0 +1,29 @@
+package Business.Engine;
+
+import Business.Boards.PieceSquareTables;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.Color;
+
+/**
+ * Gives a score to a position, in hundredths of a pawn, from the side of the color to move.
+ * The board keeps the middle game and the end game scores of its pieces up to date with every move, so the evaluation
+ * only mixes them by the game phase: with all the pieces on the board it is the middle game score, and as pieces are
+ * traded it moves to the end game score
+ */
+public final class Evaluator {
+
+    // indexed by the piece type ordinal
+    static final int[] PIECE_VALUES = PieceSquareTables.PIECE_VALUES;
+
+    private Evaluator() {
+    } // There Is no need for instances of this class
+
+    /**
+     * @return the score of the position on {@param board}, positive when the color to move is better
+     */
+    public static int evaluate(TwoPlayerChessBoard board) {
+        int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (board.getMiddlegameScore() * phase + board.getEndgameScore() * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return board.getSideToMove() == Color.White ? score : -score;
+    }
+}
@@ -0,0 +1,118 @@
+package Business.Engine;
+
+import Business.Boards.Move;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.Color;
+
+/**
+ * A search on many threads, the "Lazy SMP" way: every thread runs a normal {@link Search} of the same position on its
+ * own copy of the board, and they all share one {@link TranspositionTable}. The threads do not talk to each other, they
+ * help each other only through the table, where every thread finds the results of the others.
+ * Half of the helper threads start one depth deeper than the main thread, so the threads do not search the same tree
+ * in the same order. The result is the one of the thread that finished the deepest depth (the main thread on a tie),
+ * and when the main thread is done the helpers are stopped.
+ * With one thread the search runs on the calling thread with no helpers, so it gives the same result every time (for
+ * the same table content), which is what the tests need.
+ * Usage: LazySmpSearch "board" [w|b] depth [max threads] (the rows of the board separated with '/'), prints the nodes/second and the time to depth of every number of threads
+ */
+public class LazySmpSearch {
+
+    private final TwoPlayerChessBoard board;
+    private final TranspositionTable table;
+    private final int threads;
+    private long nodes; // of all the threads, in the last search
+
+    /**
+     * @param board   the board is not changed, every thread searches on a copy
+     * @param threads the number of threads, 1 for a single thread search on the calling thread
+     */
+    public LazySmpSearch(TwoPlayerChessBoard board, TranspositionTable table, int threads) {
+        this.board = board;
+        this.table = table;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @see Search#search(int, long)
+     */
+    public SearchResult search(int maxDepth, long millis) {
+        table.newSearch();
+        Search main = new Search(new TwoPlayerChessBoard(board), table);
+        if (threads == 1) {
+            SearchResult result = main.iterate(1, maxDepth, millis);
+            nodes = main.getNodes();
+            return result;
+        }
+
+        Search[] helpers = new Search[threads - 1];
+        SearchResult[] helperResults = new SearchResult[threads - 1];
+        Thread[] helperThreads = new Thread[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            int helper = i;
+            int startDepth = 1 + (helper % 2); // every second helper is one depth ahead
+            helpers[helper] = new Search(new TwoPlayerChessBoard(board), table);
+            helperThreads[helper] = new Thread(() -> helperResults[helper] = helpers[helper].iterate(startDepth, maxDepth, millis), "lazy-smp-helper-" + helper);
+            helperThreads[helper].setDaemon(true);
+            helperThreads[helper].start();
+        }
+
+        SearchResult result = main.iterate(1, maxDepth, millis);
+        for (Search helper : helpers)
+            helper.stop();
+        nodes = main.getNodes();
+        for (int i = 0; i < helpers.length; i++) {
+            try {
+                helperThreads[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            nodes += helpers[i].getNodes();
+            if (helperResults[i] != null && helperResults[i].getDepth() > result.getDepth() && helperResults[i].getMove() != Move.NONE)
+                result = helperResults[i];
+        }
+        return result;
+    }
+
+    /**
+     * @return the nodes all the threads searched in the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("usage: LazySmpSearch \"board\" [w|b] depth [max threads]");
+            return;
+        }
+        // the color is optional, the arguments after it are counted from where it would be
+        boolean hasSide = args[1].equals("w") || args[1].equals("b");
+        int next = hasSide ? 2 : 1;
+        if (args.length <= next) {
+            System.out.println("usage: LazySmpSearch \"board\" [w|b] depth [max threads]");
+            return;
+        }
+        Color side = args[1].equals("b") ? Color.Black : Color.White;
+        int depth = Integer.parseInt(args[next]);
+        int maxThreads = args.length > next + 1 ? Integer.parseInt(args[next + 1]) : 32;
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard(args[0].replace('/', '\n'), side);
+        new LazySmpSearch(board, new TranspositionTable(16), 1).search(depth, Long.MAX_VALUE); // lets the JIT compile the search first
+
+        // every run gets a new table, so no run starts with the results of the run before it
+        System.out.println("threads  depth  move  score  nodes  ms  nodes/second  time to depth speedup");
+        long singleThreadMillis = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            LazySmpSearch search = new LazySmpSearch(board, new TranspositionTable(64), threads);
+            long start = System.nanoTime();
+            SearchResult result = search.search(depth, Long.MAX_VALUE);
+            long nanos = System.nanoTime() - start;
+            if (threads == 1)
+                singleThreadMillis = Math.max(1, nanos / 1_000_000);
+            System.out.printf("%d  %d  %s  %d  %d  %d  %d  %.2f%n", threads, result.getDepth(), Move.toString(result.getMove()),
+                    result.getScore(), search.getNodes(), nanos / 1_000_000, (long) (search.getNodes() * 1e9 / nanos),
+                    singleThreadMillis / Math.max(1.0, nanos / 1_000_000.0));
+            if (threads == maxThreads)
+                break;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package Business.Engine;
+
+import Business.Boards.Bitboards;
+import Business.Boards.Move;
+import Business.Boards.MoveGenerator;
+import Business.Boards.MoveList;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.ChessPieces.PieceType;
+import Business.Color;
+
+/**
+ * Gives the moves of a position one by one, the moves that are likely to be the best first, so the search gets its
+ * cutoffs early. The moves come in stages:
+ * 1. the move from the {@link TranspositionTable}
+ * 2. captures (and queen promotions), the most valuable victim first and the least valuable attacker first (MVV-LVA)
+ * 3. the killer moves of the ply, quiet moves that made a cutoff in a sibling position
+ * 4. the other quiet moves, by their history score (how often they made a cutoff anywhere in the search)
+ * A stage is scored only when the stage before it is done, and every call takes the best move that is left instead of
+ * sorting, so when a cutoff comes early most of the moves are never scored or sorted.
+ * In the quiescence search only the second stage is used (see {@link #resetCaptures()}).
+ * The moves are given without their flags, like the moves in the {@link TranspositionTable} (see "isCapture").
+ * An instance belongs to one ply of one search, it is reset for every position
+ */
+class MovePicker {
+
+    private static final int MAX_MOVES = 256;
+    private static final long PROMOTION_ROWS = 0xFFL | 0xFFL << 56;
+
+    // the stages
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int KILLERS = 3;
+    private static final int GENERATE_QUIETS = 4;
+    private static final int QUIETS = 5;
+    private static final int DONE = 6;
+
+    private final TwoPlayerChessBoard board;
+    private final MoveGenerator generator;
+    private final int[][][] history; // [color][from][to], shared by all the plies of the search
+
+    private final long[] destinations = new long[64];
+    private final MoveList moves = new MoveList(MAX_MOVES);
+    private final int[] scores = new int[MAX_MOVES];
+    private int index;
+    private int stage;
+
+    private long movable;
+    private long opponent;
+    private Color side;
+    private int hashMove;
+    private final int[] killers = new int[2];
+    private int killerIndex;
+    private boolean capturesOnly;
+
+    MovePicker(TwoPlayerChessBoard board, int[][][] history) {
+        this.board = board;
+        this.generator = board.getMoveGenerator();
+        this.history = history;
+    }
+
+    /**
+     * starts the moves of the position on the board, the legal moves are generated here
+     *
+     * @param hashMove the move from the table, or {@link Move#NONE}
+     * @param killer1  the killer moves of the ply, or {@link Move#NONE}
+     */
+    void reset(int hashMove, int killer1, int killer2) {
+        side = board.getSideToMove();
+        movable = generator.generate(side, destinations);
+        opponent = board.occupancy(side == Color.White ? Color.Black : Color.White);
+        this.hashMove = isLegal(hashMove) ? hashMove : Move.NONE;
+        killers[0] = killer1;
+        killers[1] = killer2;
+        killerIndex = 0;
+        capturesOnly = false;
+        stage = HASH_MOVE;
+        moves.clear();
+        index = 0;
+    }
+
+    /**
+     * starts the captures and queen promotions of the position on the board, with no hash move and no quiet moves
+     */
+    void resetCaptures() {
+        reset(Move.NONE, Move.NONE, Move.NONE);
+        capturesOnly = true;
+    }
+
+    /**
+     * @return true if the position has a legal move
+     */
+    boolean hasMoves() {
+        return movable != 0;
+    }
+
+    /**
+     * @return the next move, or {@link Move#NONE} when there are no more moves
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE -> {
+                    stage = GENERATE_CAPTURES;
+                    if (hashMove != Move.NONE)
+                        return hashMove;
+                }
+                case GENERATE_CAPTURES -> {
+                    generateCaptures();
+                    stage = CAPTURES;
+                }
+                case CAPTURES -> {
+                    if (index < moves.size())
+                        return pickBest();
+                    stage = capturesOnly ? DONE : KILLERS;
+                }
+                case KILLERS -> {
+                    while (killerIndex < killers.length) {
+                        int killer = killers[killerIndex++];
+                        if (killer != hashMove && isLegal(killer) && !isCapture(killer) && Move.promotion(killer) == Move.NO_PROMOTION)
+                            return killer;
+                    }
+                    stage = GENERATE_QUIETS;
+                }
+                case GENERATE_QUIETS -> {
+                    generateQuiets();
+                    stage = QUIETS;
+                }
+                case QUIETS -> {
+                    if (index < moves.size())
+                        return pickBest();
+                    stage = DONE;
+                }
+                default -> {
+                    return Move.NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if {@param move} takes a piece, must be called before the move is made
+     */
+    boolean isCapture(int move) {
+        return Bitboards.contains(opponent, Move.to(move));
+    }
+
+    private void generateCaptures() {
+        moves.clear();
+        index = 0;
+        for (long pieces = movable; pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces)) {
+            int from = Bitboards.firstSquare(pieces);
+            PieceType attacker = typeOn(from);
+            long targets = destinations[from] & opponent;
+            if (attacker == PieceType.Pawn)
+                targets |= destinations[from] & PROMOTION_ROWS;
+            for (; targets != 0; targets = Bitboards.withoutFirstSquare(targets)) {
+                int to = Bitboards.firstSquare(targets);
+                boolean promotion = attacker == PieceType.Pawn && Bitboards.contains(PROMOTION_ROWS, to);
+                int move = promotion ? Move.of(from, to, Move.QUEEN) : Move.of(from, to);
+                if (move == hashMove)
+                    continue;
+                // the victim is worth much more than the attacker, so any capture of a queen comes before any capture of a rook
+                int score = Bitboards.contains(opponent, to) ? 8 * Evaluator.PIECE_VALUES[typeOn(to).ordinal()] - attacker.ordinal() : 0;
+                if (promotion)
+                    score += 8 * Evaluator.PIECE_VALUES[PieceType.Queen.ordinal()];
+                add(move, score);
+            }
+        }
+    }
+
+    private void generateQuiets() {
+        moves.clear();
+        index = 0;
+        int[][] colorHistory = history[side.ordinal()];
+        for (long pieces = movable; pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces)) {
+            int from = Bitboards.firstSquare(pieces);
+            boolean pawn = typeOn(from) == PieceType.Pawn;
+            for (long targets = destinations[from] & ~opponent; targets != 0; targets = Bitboards.withoutFirstSquare(targets)) {
+                int to = Bitboards.firstSquare(targets);
+                if (pawn && Bitboards.contains(PROMOTION_ROWS, to)) {
+                    // the queen promotion was a capture stage move, the other pieces are almost never better
+                    for (int promotion = Move.ROOK; promotion <= Move.KNIGHT; promotion++)
+                        addQuiet(Move.of(from, to, promotion), Integer.MIN_VALUE + promotion);
+                } else {
+                    addQuiet(Move.of(from, to), colorHistory[from][to]);
+                }
+            }
+            if (pawn) { // the captures that promote to another piece than a queen
+                for (long targets = destinations[from] & opponent & PROMOTION_ROWS; targets != 0; targets = Bitboards.withoutFirstSquare(targets)) {
+                    int to = Bitboards.firstSquare(targets);
+                    for (int promotion = Move.ROOK; promotion <= Move.KNIGHT; promotion++)
+                        addQuiet(Move.of(from, to, promotion), Integer.MIN_VALUE + promotion);
+                }
+            }
+        }
+    }
+
+    private void addQuiet(int move, int score) {
+        if (move != hashMove && move != killers[0] && move != killers[1])
+            add(move, score);
+    }
+
+    private void add(int move, int score) {
+        scores[moves.size()] = score;
+        moves.add(move);
+    }
+
+    /**
+     * swaps the best move that is left to "index" and returns it
+     */
+    private int pickBest() {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best])
+                best = i;
+        }
+        int move = moves.get(best);
+        moves.set(best, moves.get(index));
+        scores[best] = scores[index];
+        index++;
+        return move;
+    }
+
+    private boolean isLegal(int move) {
+        return move != Move.NONE && Bitboards.contains(movable, Move.from(move)) && Bitboards.contains(destinations[Move.from(move)], Move.to(move));
+    }
+
+    private PieceType typeOn(int square) {
+        return board.getPieceInPlace(Bitboards.row(square), Bitboards.column(square)).getType();
+    }
+}
@@ -0,0 +1,129 @@
+package Business.Engine;
+
+import Business.Boards.Move;
+import Business.MessagesLibrary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The moves to play in the known opening positions, read from a book file (see {@link OpeningBookBuilder}).
+ * The file is a sorted array of records of {@link #RECORD_BYTES} bytes: the hash of the position (long), a move
+ * ({@link Move}, int) and its weight (int), sorted by the hash, and for the same hash the best weight first.
+ * The file is mapped to memory and never read into the heap, so all the processes on a machine share it through the
+ * page cache, and a lookup is a binary search on the mapped records that allocates nothing.
+ * The hashes are the ones of {@link Business.Boards.TwoPlayerChessBoard#hash()}, so a book fits only the boards of this
+ * program. Since two positions can have the same hash, a move from the book must be checked to be legal.
+ * The reads are absolute, so one book can be used by many threads
+ */
+public class OpeningBook {
+
+    public static final int RECORD_BYTES = 16;
+    private static final int MOVE_OFFSET = 8;
+    private static final int WEIGHT_OFFSET = 12;
+
+    private final ByteBuffer records;
+    private final int count;
+
+    /**
+     * @param records the records of a book, from position 0
+     */
+    OpeningBook(ByteBuffer records) {
+        if (records.capacity() % RECORD_BYTES != 0)
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_BOOK);
+        this.records = records;
+        this.count = records.capacity() / RECORD_BYTES;
+    }
+
+    /**
+     * maps the book file at {@param path} to memory, the mapping stays after the file is closed
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return the book at {@param path}, or null if there is no such file or it can not be read
+     */
+    public static OpeningBook openIfExists(Path path) {
+        if (!Files.isRegularFile(path))
+            return null;
+        try {
+            return open(path);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the move with the best weight in the position with {@param hash}, or {@link Move#NONE} if it is not in the book
+     */
+    public int bestMove(long hash) {
+        int first = firstRecord(hash);
+        return first < 0 ? Move.NONE : move(first);
+    }
+
+    /**
+     * picks one of the moves of the position at random, a move with twice the weight comes twice as often, so the bot
+     * does not play the same game every time
+     *
+     * @return a move of the position with {@param hash}, or {@link Move#NONE} if it is not in the book
+     */
+    public int pickMove(long hash) {
+        int first = firstRecord(hash);
+        if (first < 0)
+            return Move.NONE;
+        long total = 0;
+        for (int i = first; i < count && hash(i) == hash; i++)
+            total += weight(i);
+        if (total == 0)
+            return move(first);
+        long pick = ThreadLocalRandom.current().nextLong(total);
+        for (int i = first; ; i++) {
+            pick -= weight(i);
+            if (pick < 0)
+                return move(i);
+        }
+    }
+
+    /**
+     * @return the number of records in the book
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the index of the first record of {@param hash}, or -1 if there is none
+     */
+    private int firstRecord(long hash) {
+        int low = 0, high = count; // the first record of the hash is in [low, high)
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (hash(middle) < hash)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low < count && hash(low) == hash ? low : -1;
+    }
+
+    private long hash(int record) {
+        return records.getLong(record * RECORD_BYTES);
+    }
+
+    private int move(int record) {
+        return records.getInt(record * RECORD_BYTES + MOVE_OFFSET);
+    }
+
+    private int weight(int record) {
+        return records.getInt(record * RECORD_BYTES + WEIGHT_OFFSET);
+    }
+}
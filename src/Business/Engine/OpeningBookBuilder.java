@@ -0,0 +1,223 @@
+package Business.Engine;
+
+import Business.Boards.Bitboards;
+import Business.Boards.Move;
+import Business.Boards.MoveUndo;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.ChessPieces.PieceType;
+import Business.Color;
+import Business.MessagesLibrary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} file from games in PGN, offline.
+ * Every move of the first plies of every game is counted in the position it was played in, with a weight by the result
+ * of the game: 2 for a move of the side that won, 1 for a draw or an unknown result, 0 for the side that lost (the moves
+ * that only lost are left out of the book).
+ * A game with a move that can not be read or is not legal here (an en passant capture for example) is used up to that move.
+ * Usage: OpeningBookBuilder book.bin max-plies games.pgn [more.pgn...]
+ */
+public class OpeningBookBuilder {
+
+    private final int maxPlies;
+    private final Map<Long, Map<Integer, Integer>> weights = new HashMap<>(); // hash -> move -> weight
+    private int games;
+
+    /**
+     * @param maxPlies the number of plies of every game to put in the book
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * adds all the games of {@param pgn} to the book
+     */
+    public void addGames(String pgn) {
+        List<String> moves = new ArrayList<>();
+        int i = 0;
+        while (i < pgn.length()) {
+            char c = pgn.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '[') { // a tag, a new game starts if the last one had no result
+                if (!moves.isEmpty()) {
+                    addGame(moves, "*");
+                    moves.clear();
+                }
+                i = skipTo(pgn, i, ']');
+            } else if (c == '{') { // a comment
+                i = skipTo(pgn, i, '}');
+            } else if (c == ';') { // a comment to the end of the line
+                i = skipTo(pgn, i, '\n');
+            } else if (c == '(') { // a variation, can hold other variations
+                int depth = 0;
+                for (; i < pgn.length(); i++) {
+                    if (pgn.charAt(i) == '(')
+                        depth++;
+                    else if (pgn.charAt(i) == ')' && --depth == 0)
+                        break;
+                }
+                i++;
+            } else {
+                int end = i;
+                while (end < pgn.length() && !Character.isWhitespace(pgn.charAt(end)) && "{(;[".indexOf(pgn.charAt(end)) < 0)
+                    end++;
+                String token = pgn.substring(i, end);
+                i = end;
+                if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+                    addGame(moves, token);
+                    moves.clear();
+                } else if (token.charAt(0) != '$') { // "$1" is an annotation
+                    String move = token.replaceFirst("^[0-9]*\\.+", ""); // the move number, as in "1." or "12...e5"
+                    if (!move.isEmpty())
+                        moves.add(move);
+                }
+            }
+        }
+        if (!moves.isEmpty())
+            addGame(moves, "*");
+    }
+
+    /**
+     * @return the number of games added so far
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * writes the book file, see {@link OpeningBook} for the format
+     */
+    public void write(Path path) throws IOException {
+        List<long[]> records = new ArrayList<>(); // {hash, move, weight}
+        weights.forEach((hash, moves) -> moves.forEach((move, weight) -> {
+            if (weight > 0)
+                records.add(new long[]{hash, move, weight});
+        }));
+        records.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+        ByteBuffer buffer = ByteBuffer.allocate(records.size() * OpeningBook.RECORD_BYTES);
+        for (long[] record : records)
+            buffer.putLong(record[0]).putInt((int) record[1]).putInt((int) Math.min(record[2], Integer.MAX_VALUE));
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    private void addGame(List<String> moves, String result) {
+        games++;
+        TwoPlayerChessBoard board = new TwoPlayerChessBoard();
+        MoveUndo undo = new MoveUndo();
+        for (int ply = 0; ply < Math.min(maxPlies, moves.size()); ply++) {
+            int move;
+            try {
+                move = parseSan(board, moves.get(ply));
+            } catch (RuntimeException e) {
+                return;
+            }
+            int weight = result.equals("1-0") ? (board.getSideToMove() == Color.White ? 2 : 0)
+                    : result.equals("0-1") ? (board.getSideToMove() == Color.Black ? 2 : 0) : 1;
+            weights.computeIfAbsent(board.hash(), hash -> new HashMap<>()).merge(move, weight, Integer::sum);
+            board.makeMove(move, undo);
+        }
+    }
+
+    /**
+     * @param san a move of the side to move in the standard algebraic notation, like "Nbd7", "exd5", "e8=Q+" or "O-O"
+     * @return the legal move it stands for
+     */
+    static int parseSan(TwoPlayerChessBoard board, String san) {
+        san = san.replaceAll("[+#!?]", "");
+        Color side = board.getSideToMove();
+        long[] destinations = new long[64];
+        long movable = board.getMoveGenerator().generate(side, destinations);
+
+        if (san.equals("O-O") || san.equals("0-0") || san.equals("O-O-O") || san.equals("0-0-0")) {
+            int king = Bitboards.firstSquare(board.pieces(side, PieceType.King));
+            int to = king + (san.length() == 3 ? 2 : -2);
+            if (Bitboards.contains(movable, king) && Bitboards.contains(destinations[king], to))
+                return Move.of(king, to);
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_MOVE);
+        }
+
+        int promotion = Move.NO_PROMOTION;
+        int promotionIndex = san.indexOf('='); // "e8=Q", or "e8Q" without the '='
+        if (promotionIndex < 0 && san.length() > 2 && Character.isUpperCase(san.charAt(san.length() - 1)))
+            promotionIndex = san.length() - 1;
+        if (promotionIndex > 0) {
+            promotion = " QRBN".indexOf(san.charAt(san.length() - 1));
+            if (promotion <= 0)
+                throw new RuntimeException(MessagesLibrary.ILLEGAL_MOVE);
+            san = san.substring(0, promotionIndex);
+        }
+        if (san.length() < 2)
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_MOVE);
+
+        int typeIndex = "PNBRQK".indexOf(san.charAt(0));
+        PieceType type = typeIndex >= 0 ? PieceType.of(typeIndex) : PieceType.Pawn;
+        String target = san.substring(san.length() - 2);
+        String hint = san.substring(typeIndex >= 0 ? 1 : 0, san.length() - 2).replace("x", ""); // the file or the row of the piece, if more than one can move there
+        int to = squareOf(target);
+
+        int found = Move.NONE;
+        for (long pieces = movable & board.pieces(side, type); pieces != 0; pieces = Bitboards.withoutFirstSquare(pieces)) {
+            int from = Bitboards.firstSquare(pieces);
+            if (!Bitboards.contains(destinations[from], to) || !matches(from, hint))
+                continue;
+            if (found != Move.NONE)
+                throw new RuntimeException(MessagesLibrary.ILLEGAL_MOVE); // more than one piece fits
+            found = Move.of(from, to, promotion);
+        }
+        if (found == Move.NONE)
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_MOVE);
+        return found;
+    }
+
+    private static boolean matches(int from, String hint) {
+        for (int i = 0; i < hint.length(); i++) {
+            char c = hint.charAt(i);
+            if (c >= 'a' && c <= 'h' ? Bitboards.column(from) != c - 'a'
+                    : c >= '1' && c <= '8' ? Bitboards.row(from) != '8' - c : true)
+                return false;
+        }
+        return true;
+    }
+
+    private static int squareOf(String name) {
+        int column = name.charAt(0) - 'a', row = '8' - name.charAt(1);
+        if (!Bitboards.isInBoard(row, column))
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_MOVE);
+        return Bitboards.square(row, column);
+    }
+
+    private static int skipTo(String text, int from, char end) {
+        int index = text.indexOf(end, from);
+        return index < 0 ? text.length() : index + 1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("usage: OpeningBookBuilder book.bin max-plies games.pgn [more.pgn...]");
+            return;
+        }
+        OpeningBookBuilder builder = new OpeningBookBuilder(Integer.parseInt(args[1]));
+        for (int i = 2; i < args.length; i++)
+            builder.addGames(Files.readString(Path.of(args[i]), StandardCharsets.ISO_8859_1));
+        builder.write(Path.of(args[0]));
+        System.out.printf("%d games, %d records%n", builder.getGames(), OpeningBook.open(Path.of(args[0])).size());
+    }
+}
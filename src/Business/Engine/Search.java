@@ -0,0 +1,341 @@
+package Business.Engine;
+
+import Business.Boards.Move;
+import Business.Boards.MoveGenerator;
+import Business.Boards.MoveUndo;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.ChessPieces.PieceType;
+import Business.Color;
+
+/**
+ * Looks for the best move on a board with a negamax alpha-beta search.
+ * The search goes one depth after the other (iterative deepening), so it can stop at any time with the move of the last
+ * finished depth, and every depth starts with the best moves of the one before it (they are kept in the
+ * {@link TranspositionTable}). On top of it:
+ * aspiration windows - a depth is searched first with a small window around the score of the depth before it,
+ * principal variation search - after the first move, the other moves are only checked to be worse with a null window,
+ * and searched again with the full window if they are not,
+ * null move pruning - if the position is still too good after passing the turn, it is not searched to the full depth.
+ * At depth 0 the search goes on with the captures only (quiescence search), so a position is not scored in the middle of
+ * an exchange, the captures that lose material by the {@link StaticExchange} are not searched there.
+ * The endings that are in the {@link Tablebases} are not searched at all, their score is exact, and a position that was
+ * on the board before (in the search or in the game) or that ends the fifty moves is a draw.
+ * The moves of every position come from a {@link MovePicker}, which gives the moves that should make a cutoff first, it
+ * learns the quiet moves that made cutoffs in the killer moves of every ply and in the history table.
+ * Note: a search works on the board it was given (it makes and takes back moves), so the board must not be used by
+ * anything else while the search runs
+ */
+public class Search {
+
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000; // the score of a mate now, a mate in n moves is MATE - n
+    public static final int MAX_PLY = 64;
+    // a mate can be further than MAX_PLY when it comes from the tablebases
+    private static final int MAX_MATE_PLIES = 256;
+
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int MAX_HISTORY = 1 << 20; // the history scores are halved when one of them gets here
+
+    private final TwoPlayerChessBoard board;
+    private final MoveGenerator generator;
+    private final StaticExchange exchange;
+    private final TranspositionTable table;
+    private final Tablebases tablebases = Tablebases.getDefault();
+
+    // the memory of every ply, so nothing is allocated while searching
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final MoveUndo[] undos = new MoveUndo[MAX_PLY];
+
+    // what the search learned about the quiet moves
+    private final int[][] killers = new int[MAX_PLY][2]; // the last two quiet moves that made a cutoff on every ply
+    private final int[][][] history = new int[2][64][64]; // [color][from][to], how much that quiet move made cutoffs
+
+    private long nodes;
+    private long deadline;
+    private boolean canStop; // false until the first depth is done, so there is always a move to return
+    private volatile boolean stopped;
+    private int rootBestMove;
+
+    /**
+     * @param table the table can be shared with other searches, also on other threads
+     */
+    public Search(TwoPlayerChessBoard board, TranspositionTable table) {
+        this.board = board;
+        this.generator = board.getMoveGenerator();
+        this.exchange = new StaticExchange(board);
+        this.table = table;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker(board, history);
+            undos[ply] = new MoveUndo();
+        }
+    }
+
+    /**
+     * searches the best move of the side to move of the board
+     *
+     * @param maxDepth the depth to stop at
+     * @param millis   the time to stop after, the last finished depth is returned
+     * @return the result of the deepest finished depth
+     */
+    public SearchResult search(int maxDepth, long millis) {
+        table.newSearch();
+        stopped = false;
+        return iterate(1, maxDepth, millis);
+    }
+
+    /**
+     * the iterative deepening loop, from {@param startDepth} to {@param maxDepth}. Unlike "search", it does not start a
+     * new search in the table, so a few searches can run together on the same table (see {@link LazySmpSearch}), and it
+     * does not clear "stop", so a search that was stopped before it started does not run
+     */
+    SearchResult iterate(int startDepth, int maxDepth, long millis) {
+        long start = System.currentTimeMillis();
+        deadline = start + Math.min(millis, Long.MAX_VALUE - start); // Long.MAX_VALUE is no time limit
+        nodes = 0;
+        canStop = false;
+        for (int[] plyKillers : killers) // the killers of another position are no good here, the history still is
+            plyKillers[0] = plyKillers[1] = Move.NONE;
+        ageHistory();
+
+        SearchResult result = new SearchResult(Move.NONE, 0, 0, 0, 0);
+        int score = 0;
+        for (int depth = startDepth; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            int window = ASPIRATION_WINDOW;
+            boolean aspiration = depth >= 4 && depth > startDepth; // a window needs the score of the depth before
+            int alpha = aspiration ? score - window : -INFINITY;
+            int beta = aspiration ? score + window : INFINITY;
+            int iterationScore;
+            while (true) {
+                iterationScore = negamax(depth, alpha, beta, 0, false);
+                if (stopped)
+                    break;
+                // the score is out of the window, so it is not exact, search again with a wider window on that side
+                if (iterationScore <= alpha)
+                    alpha = Math.max(-INFINITY, alpha - window);
+                else if (iterationScore >= beta)
+                    beta = Math.min(INFINITY, beta + window);
+                else
+                    break;
+                window *= 2;
+            }
+            if (stopped)
+                break;
+
+            score = iterationScore;
+            result = new SearchResult(rootBestMove, score, depth, nodes, System.currentTimeMillis() - start);
+            canStop = true;
+            if (rootBestMove == Move.NONE || isMateScore(score))
+                break; // no legal move, or a mate was found and a deeper search will not find a faster one
+        }
+        return result;
+    }
+
+    /**
+     * stops a running search from another thread, the search returns the last finished depth
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) > MATE - MAX_MATE_PLIES;
+    }
+
+    /**
+     * @param ply        the number of moves from the root
+     * @param nullAllowed false right after a null move, two null moves in a row prove nothing
+     * @return the score of the position from the side of the color to move, exact if it is between {@param alpha} and
+     * {@param beta}, otherwise only a bound
+     */
+    private int negamax(int depth, int alpha, int beta, int ply, boolean nullAllowed) {
+        if (depth <= 0)
+            return quiesce(alpha, beta, ply);
+        if ((++nodes & 1023) == 0 && canStop && System.currentTimeMillis() > deadline)
+            stopped = true;
+        if (stopped)
+            return 0;
+        if (ply >= MAX_PLY - 1)
+            return Evaluator.evaluate(board);
+
+        boolean root = ply == 0;
+        // a position that was on the board before is a draw, the side that could do better would not go back to it
+        if (!root && (board.isRepetition() || board.isFiftyMovesDraw()))
+            return 0;
+        if (!root && Long.bitCount(board.occupied()) <= 4) {
+            int score = tablebases.probe(board);
+            if (score != Tablebases.NOT_FOUND)
+                return fromTable(score, ply); // the tables count the mate from the position, like the transposition table
+        }
+        long key = board.hash();
+        int hashMove = Move.NONE;
+        long data = table.probe(key);
+        if (data != 0) {
+            hashMove = TranspositionTable.move(data);
+            if (!root && TranspositionTable.depth(data) >= depth) {
+                int score = fromTable(TranspositionTable.score(data), ply);
+                int bound = TranspositionTable.bound(data);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || bound == TranspositionTable.BOUND_LOWER && score >= beta
+                        || bound == TranspositionTable.BOUND_UPPER && score <= alpha)
+                    return score;
+            }
+        }
+
+        Color side = board.getSideToMove();
+        boolean inCheck = generator.isInCheck(side);
+
+        // null move: give the opponent a free move, if the score is still above beta, the position is good enough
+        if (nullAllowed && !inCheck && depth > NULL_MOVE_REDUCTION && hasPiecesButPawns(side) && Evaluator.evaluate(board) >= beta) {
+            board.makeNullMove(undos[ply]);
+            int score = -negamax(depth - 1 - NULL_MOVE_REDUCTION, -beta, -beta + 1, ply + 1, false);
+            board.unmakeNullMove(undos[ply]);
+            if (stopped)
+                return 0;
+            if (score >= beta)
+                return isMateScore(score) ? beta : score;
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.reset(hashMove, killers[ply][0], killers[ply][1]);
+        if (!picker.hasMoves())
+            return inCheck ? -MATE + ply : 0; // checkmate or pat
+
+        MoveUndo undo = undos[ply];
+        int originalAlpha = alpha;
+        int best = -INFINITY, bestMove = Move.NONE;
+        int move;
+        for (int i = 0; (move = picker.next()) != Move.NONE; i++) {
+            boolean capture = picker.isCapture(move);
+            board.makeMove(move, undo);
+            int score;
+            if (i == 0) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha && score < beta)
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+            }
+            board.unmakeMove(undo);
+            if (stopped)
+                return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (root)
+                    rootBestMove = move;
+            }
+            if (score > alpha)
+                alpha = score;
+            if (alpha >= beta) {
+                if (!capture && Move.promotion(move) == Move.NO_PROMOTION)
+                    addCutoff(move, side, depth, ply);
+                break;
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+                : best > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, TranspositionTable.packSearchResult(bestMove, toTable(best, ply), bound), depth);
+        return best;
+    }
+
+    /**
+     * searches the captures only, until the position is quiet. The side to move can always stop taking ("stand pat"), so
+     * the score is at least the evaluation, unless it is in check, then all the moves are searched
+     *
+     * @see #negamax(int, int, int, int, boolean)
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        if ((++nodes & 1023) == 0 && canStop && System.currentTimeMillis() > deadline)
+            stopped = true;
+        if (stopped)
+            return 0;
+        if (ply >= MAX_PLY - 1)
+            return Evaluator.evaluate(board);
+
+        boolean inCheck = generator.isInCheck(board.getSideToMove());
+        MovePicker picker = pickers[ply];
+        int best;
+        if (inCheck) {
+            picker.reset(Move.NONE, Move.NONE, Move.NONE);
+            if (!picker.hasMoves())
+                return -MATE + ply;
+            best = -INFINITY;
+        } else {
+            best = Evaluator.evaluate(board);
+            if (best >= beta)
+                return best;
+            alpha = Math.max(alpha, best);
+            picker.resetCaptures();
+        }
+
+        MoveUndo undo = undos[ply];
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            if (!inCheck && exchange.evaluate(move) < 0)
+                continue; // loses material, a capture that is better than it looks is left to the full search
+            board.makeMove(move, undo);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            board.unmakeMove(undo);
+            if (stopped)
+                return 0;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha)
+                    alpha = score;
+                if (alpha >= beta)
+                    break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * remembers a quiet move that made a cutoff, as a killer of {@param ply} and in the history, a cutoff deep in the
+     * tree counts much more than one near the leaves
+     */
+    private void addCutoff(int move, Color side, int depth, int ply) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] fromHistory = history[side.ordinal()][Move.from(move)];
+        fromHistory[Move.to(move)] += depth * depth;
+        if (fromHistory[Move.to(move)] >= MAX_HISTORY)
+            ageHistory();
+    }
+
+    /**
+     * halves all the history scores, so the moves that made cutoffs lately count more than the old ones
+     */
+    private void ageHistory() {
+        for (int[][] colorHistory : history)
+            for (int[] fromHistory : colorHistory)
+                for (int to = 0; to < 64; to++)
+                    fromHistory[to] /= 2;
+    }
+
+    private boolean hasPiecesButPawns(Color color) {
+        return (board.occupancy(color) & ~board.pieces(color, PieceType.Pawn) & ~board.pieces(color, PieceType.King)) != 0;
+    }
+
+    /**
+     * a mate score is kept in the table as the distance from the position and not from the root, since the same position
+     * can be found on another ply
+     */
+    private static int toTable(int score, int ply) {
+        return isMateScore(score) ? (score > 0 ? score + ply : score - ply) : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return isMateScore(score) ? (score > 0 ? score - ply : score + ply) : score;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
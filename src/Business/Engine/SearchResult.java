@@ -0,0 +1,52 @@
+package Business.Engine;
+
+import Business.Boards.Move;
+
+/**
+ * What a search found: the best move and its score, with the depth that was finished and the work it took
+ */
+public class SearchResult {
+    private final int move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long millis;
+
+    public SearchResult(int move, int score, int depth, long nodes, long millis) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+    }
+
+    /**
+     * @return the best move, see {@link Move}, or {@link Move#NONE} if there was no legal move
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * @return the score of the best move from the side of the color to move, see {@link Search#isMateScore(int)}
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public String toString() {
+        return String.format("depth %d score %d move %s nodes %d time %d ms", depth, score, Move.toString(move), nodes, millis);
+    }
+}
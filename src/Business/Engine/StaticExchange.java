@@ -0,0 +1,119 @@
+package Business.Engine;
+
+import Business.Boards.AttackTables;
+import Business.Boards.Bitboards;
+import Business.Boards.Move;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.ChessPieces.PieceType;
+import Business.Color;
+
+/**
+ * The static exchange evaluation (SEE): what a capture wins after all the captures that follow it on the same square,
+ * when both sides always take back with their least valuable piece and stop when taking back loses.
+ * When a piece takes, the pieces behind it on the same line (the x-rays, like a rook behind a rook or a queen behind a
+ * bishop) join the exchange. Pins and checks are not looked at, so it is a guess, but a cheap one, no move is made.
+ * An instance works on one board and keeps its memory, so it allocates nothing, it is not thread safe
+ */
+public class StaticExchange {
+
+    // indexed by the piece type ordinal, the king can take last only, nothing is worth losing it
+    private static final int[] VALUES = {100, 320, 330, 500, 900, 20000};
+    private static final long PROMOTION_ROWS = 0xFFL | 0xFFL << 56;
+
+    private final TwoPlayerChessBoard board;
+    private final int[] gain = new int[32]; // gain[i] is what the side of the i-th capture wins so far
+
+    public StaticExchange(TwoPlayerChessBoard board) {
+        this.board = board;
+    }
+
+    /**
+     * @param move a legal move of the side to move of the board
+     * @return the material the side to move wins with {@param move} and the exchange after it, negative if it loses
+     */
+    public int evaluate(int move) {
+        int from = Move.from(move), to = Move.to(move);
+        Color side = board.getSideToMove();
+        PieceType piece = typeOn(side, from);
+        PieceType victim = typeOn(opponent(side), to);
+
+        gain[0] = victim == null ? 0 : VALUES[victim.ordinal()];
+        int pieceValue = VALUES[piece.ordinal()];
+        if (piece == PieceType.Pawn && Bitboards.contains(PROMOTION_ROWS, to)) { // the pawn is a queen from now on
+            gain[0] += VALUES[PieceType.Queen.ordinal()] - VALUES[PieceType.Pawn.ordinal()];
+            pieceValue = VALUES[PieceType.Queen.ordinal()];
+        }
+
+        long occupied = board.occupied() & ~Bitboards.bit(from);
+        long diagonals = diagonalSliders();
+        long lines = lineSliders();
+        long attackers = (attackersTo(to, Color.White, occupied) | attackersTo(to, Color.Black, occupied)) & occupied;
+
+        int depth = 0;
+        while (true) {
+            side = opponent(side);
+            long sideAttackers = attackers & board.occupancy(side);
+            if (sideAttackers == 0)
+                break;
+            depth++;
+            gain[depth] = pieceValue - gain[depth - 1]; // what "side" wins by taking the piece on the square
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0)
+                break; // whatever comes next, the side before would not have taken
+
+            // the least valuable attacker takes
+            int attacker = 0;
+            for (int type = 0; type < PieceType.COUNT; type++) {
+                long typeAttackers = sideAttackers & board.pieces(side, PieceType.of(type));
+                if (typeAttackers != 0) {
+                    attacker = Bitboards.firstSquare(typeAttackers);
+                    pieceValue = VALUES[type];
+                    break;
+                }
+            }
+            occupied &= ~Bitboards.bit(attacker);
+            // the pieces behind the one that took now see the square
+            attackers |= (AttackTables.bishop(to, occupied) & diagonals) | (AttackTables.rook(to, occupied) & lines);
+            attackers &= occupied;
+            if (depth == gain.length - 1)
+                break;
+        }
+
+        // from the last capture back, every side takes only if it wins from it
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    private long attackersTo(int square, Color color, long occupied) {
+        long queens = board.pieces(color, PieceType.Queen);
+        return (AttackTables.pawn(opponent(color), square) & board.pieces(color, PieceType.Pawn))
+                | (AttackTables.knight(square) & board.pieces(color, PieceType.Knight))
+                | (AttackTables.king(square) & board.pieces(color, PieceType.King))
+                | (AttackTables.bishop(square, occupied) & (board.pieces(color, PieceType.Bishop) | queens))
+                | (AttackTables.rook(square, occupied) & (board.pieces(color, PieceType.Rook) | queens));
+    }
+
+    private long diagonalSliders() {
+        return board.pieces(Color.White, PieceType.Bishop) | board.pieces(Color.Black, PieceType.Bishop)
+                | board.pieces(Color.White, PieceType.Queen) | board.pieces(Color.Black, PieceType.Queen);
+    }
+
+    private long lineSliders() {
+        return board.pieces(Color.White, PieceType.Rook) | board.pieces(Color.Black, PieceType.Rook)
+                | board.pieces(Color.White, PieceType.Queen) | board.pieces(Color.Black, PieceType.Queen);
+    }
+
+    private PieceType typeOn(Color color, int square) {
+        for (int type = 0; type < PieceType.COUNT; type++) {
+            if (Bitboards.contains(board.pieces(color, PieceType.of(type)), square))
+                return PieceType.of(type);
+        }
+        return null;
+    }
+
+    private static Color opponent(Color color) {
+        return color == Color.White ? Color.Black : Color.White;
+    }
+}
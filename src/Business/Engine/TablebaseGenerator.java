@@ -0,0 +1,325 @@
+package Business.Engine;
+
+import Business.Boards.AttackTables;
+import Business.Boards.Bitboards;
+import Business.ChessPieces.PieceType;
+import Business.Color;
+import Business.Engine.Tablebases.Ending;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Makes the {@link Tablebases} offline, by retrograde analysis: it starts from the mates and goes back one ply at a time.
+ * The positions one ply before a loss, with the strong side to move, are wins; and a position of the lone king is a
+ * loss when all its moves go to wins, which the generator knows by counting its moves down as they are found to be wins.
+ * Going back ply by ply gives every position the shortest mate (and the longest defence).
+ * The moves are the moves of this program, with the {@link AttackTables}: no castling (the tables have no castling
+ * rights) and no en passant. A pawn that gets to the last row becomes a queen or a rook, so the pawn ending is made
+ * after the queen and rook endings and takes its promotions from their tables.
+ * Usage: TablebaseGenerator [directory], writes all the tables to the directory ("tablebases" by default)
+ */
+public class TablebaseGenerator {
+
+    private static final byte ESCAPE = Byte.MAX_VALUE; // the move count of a lone king position that is never lost
+    private static final long PROMOTION_ROW = 0xFFL;
+
+    private final Ending ending;
+    private final PieceType[] types; // the type of every square in a position, the kings first
+    private final byte[] values;
+    private final byte[] moveCounts; // the moves of the lone king positions that are not known to be wins yet
+    private final Tablebases promotions; // the tables the pawn ending promotes into
+
+    private final int[] squares;
+    private final int[] predecessor;
+
+    /**
+     * @param promotions the tables of the endings a pawn promotes into, not needed for an ending without pawns
+     */
+    TablebaseGenerator(Ending ending, byte[][] promotions) {
+        this.ending = ending;
+        this.types = new PieceType[2 + ending.pieces.length];
+        types[0] = types[1] = PieceType.King;
+        System.arraycopy(ending.pieces, 0, types, 2, ending.pieces.length);
+        this.values = new byte[ending.size()];
+        this.moveCounts = new byte[ending.size()];
+        this.promotions = promotions == null ? null : new Tablebases(promotions);
+        this.squares = new int[types.length];
+        this.predecessor = new int[types.length];
+    }
+
+    /**
+     * @return the table of the ending, see {@link Tablebases} for the values
+     */
+    byte[] generate() {
+        IntList losses = new IntList();
+        IntList seeds = new IntList(); // wins by a promotion, found before the waves, by their plies
+        for (int index = 0; index < values.length; index++) {
+            boolean weakToMove = Tablebases.position(ending, index, squares);
+            if (!isLegal(squares, weakToMove))
+                continue;
+            if (weakToMove) {
+                countMoves(index, losses);
+            } else if (ending.pawns) {
+                int plies = promotionWin();
+                if (plies > 0) {
+                    seeds.add(index);
+                    seeds.add(plies);
+                }
+            }
+        }
+
+        for (int plies = 0; !losses.isEmpty() || seeds.size() > 0; plies += 2) {
+            // the strong side mates in plies + 1 by moving into a loss
+            IntList wins = new IntList();
+            for (int i = 0; i < losses.size(); i++)
+                addWinsBefore(losses.get(i), plies + 1, wins);
+            IntList laterSeeds = new IntList();
+            for (int i = 0; i < seeds.size(); i += 2) {
+                int index = seeds.get(i), seedPlies = seeds.get(i + 1);
+                if (seedPlies > plies + 1) {
+                    laterSeeds.add(index);
+                    laterSeeds.add(seedPlies);
+                } else if (values[index] == 0) {
+                    values[index] = (byte) seedPlies;
+                    wins.add(index);
+                }
+            }
+            seeds = laterSeeds;
+
+            // the lone king is mated in plies + 2 when the last of its moves turns out to be a win
+            losses = new IntList();
+            for (int i = 0; i < wins.size(); i++)
+                addLossesBefore(wins.get(i), plies + 2, losses);
+        }
+        return values;
+    }
+
+    /**
+     * counts the moves of the lone king in the position in "squares", a mate is a loss now
+     */
+    private void countMoves(int index, IntList losses) {
+        long strongPieces = strongOccupancy(squares, -1);
+        long attacked = strongAttacks(squares, -1, strongPieces); // the king does not hide the squares behind it from a slider
+        int moves = 0;
+        boolean escape = false;
+        for (long targets = AttackTables.king(squares[1]); targets != 0; targets = Bitboards.withoutFirstSquare(targets)) {
+            int to = Bitboards.firstSquare(targets);
+            if (!Bitboards.contains(strongPieces, to)) {
+                if (!Bitboards.contains(attacked, to))
+                    moves++;
+                continue;
+            }
+            int taken = pieceOn(to);
+            if (taken > 1 && !Bitboards.contains(strongAttacks(squares, taken, strongOccupancy(squares, taken)), to))
+                escape = true; // a piece that is not protected is eaten, and the rest is a draw
+        }
+        if (escape || moves == 0 && !Bitboards.contains(attacked, squares[1])) {
+            moveCounts[index] = ESCAPE; // a stalemate is a draw too
+        } else if (moves == 0) {
+            values[index] = loss(0);
+            losses.add(index);
+        } else {
+            moveCounts[index] = (byte) moves;
+        }
+    }
+
+    /**
+     * @return the plies to the mate by the best promotion of the position in "squares", the strong side to move, or 0
+     */
+    private int promotionWin() {
+        int pawn = squares[2];
+        int to = pawn - 8;
+        if (!Bitboards.contains(PROMOTION_ROW, to) || to == squares[0] || to == squares[1])
+            return 0;
+        int best = 0;
+        for (Ending promoted : new Ending[]{Ending.KQK, Ending.KRK}) {
+            int value = promotions.probeIndex(promoted, Tablebases.index(promoted, new int[]{squares[0], squares[1], to}, true));
+            if (value < 0 && (best == 0 || -value < best))
+                best = -value; // the lone king is mated in -value - 1 plies after the promotion
+        }
+        return best;
+    }
+
+    /**
+     * marks the positions one strong move before the loss at {@param index} as wins in {@param plies}
+     */
+    private void addWinsBefore(int index, int plies, IntList wins) {
+        Tablebases.position(ending, index, squares);
+        long occupied = occupancy(squares);
+        for (int piece = 0; piece < squares.length; piece++) {
+            if (piece == 1)
+                continue; // the lone king
+            int square = squares[piece];
+            long origins;
+            switch (types[piece]) {
+                case King -> origins = AttackTables.king(square);
+                case Knight -> origins = AttackTables.knight(square);
+                case Bishop -> origins = AttackTables.bishop(square, occupied);
+                case Rook -> origins = AttackTables.rook(square, occupied);
+                case Queen -> origins = AttackTables.queen(square, occupied);
+                default -> { // a pawn comes from the row below, or two rows below from its starting row
+                    origins = Bitboards.EMPTY;
+                    if (Bitboards.row(square) < 6 && !Bitboards.contains(occupied, square + 8)) {
+                        origins = Bitboards.bit(square + 8);
+                        if (Bitboards.row(square) == 4 && !Bitboards.contains(occupied, square + 16))
+                            origins |= Bitboards.bit(square + 16);
+                    }
+                }
+            }
+            for (origins &= ~occupied; origins != 0; origins = Bitboards.withoutFirstSquare(origins)) {
+                System.arraycopy(squares, 0, predecessor, 0, squares.length);
+                predecessor[piece] = Bitboards.firstSquare(origins);
+                if (!isLegal(predecessor, false))
+                    continue;
+                int before = Tablebases.index(ending, predecessor, false);
+                if (values[before] == 0) {
+                    values[before] = (byte) plies;
+                    wins.add(before);
+                }
+            }
+        }
+    }
+
+    /**
+     * counts down the moves of the positions one lone king move before the win at {@param index}, the ones with no
+     * moves left are losses in {@param plies}
+     */
+    private void addLossesBefore(int index, int plies, IntList losses) {
+        Tablebases.position(ending, index, squares);
+        long occupied = occupancy(squares);
+        for (long origins = AttackTables.king(squares[1]) & ~occupied; origins != 0; origins = Bitboards.withoutFirstSquare(origins)) {
+            System.arraycopy(squares, 0, predecessor, 0, squares.length);
+            predecessor[1] = Bitboards.firstSquare(origins);
+            if (!isLegal(predecessor, true))
+                continue;
+            int before = Tablebases.index(ending, predecessor, true);
+            if (values[before] == 0 && moveCounts[before] != ESCAPE && --moveCounts[before] == 0) {
+                values[before] = loss(plies);
+                losses.add(before);
+            }
+        }
+    }
+
+    /**
+     * @return true if the kings are apart, no two pieces share a square, a pawn is not on the first or the last row, and
+     * the lone king is not in check when the strong side is to move
+     */
+    private boolean isLegal(int[] position, boolean weakToMove) {
+        long occupied = occupancy(position);
+        if (Long.bitCount(occupied) != position.length || Bitboards.contains(AttackTables.king(position[0]), position[1]))
+            return false;
+        for (int piece = 2; piece < position.length; piece++) {
+            if (types[piece] == PieceType.Pawn && (Bitboards.row(position[piece]) == 0 || Bitboards.row(position[piece]) == 7))
+                return false;
+        }
+        return weakToMove || !Bitboards.contains(strongAttacks(position, -1, occupied), position[1]);
+    }
+
+    private static long occupancy(int[] position) {
+        long occupied = Bitboards.EMPTY;
+        for (int square : position)
+            occupied |= Bitboards.bit(square);
+        return occupied;
+    }
+
+    /**
+     * @return the squares of the strong pieces, without the piece at {@param without} (-1 for none)
+     */
+    private long strongOccupancy(int[] position, int without) {
+        long occupied = Bitboards.EMPTY;
+        for (int piece = 0; piece < position.length; piece++) {
+            if (piece != 1 && piece != without)
+                occupied |= Bitboards.bit(position[piece]);
+        }
+        return occupied;
+    }
+
+    /**
+     * @return the squares the strong pieces attack, without the piece at {@param without} (-1 for none)
+     */
+    private long strongAttacks(int[] position, int without, long occupied) {
+        long attacks = AttackTables.king(position[0]);
+        for (int piece = 2; piece < position.length; piece++) {
+            if (piece == without)
+                continue;
+            int square = position[piece];
+            attacks |= switch (types[piece]) {
+                case Pawn -> AttackTables.pawn(Color.White, square);
+                case Knight -> AttackTables.knight(square);
+                case Bishop -> AttackTables.bishop(square, occupied);
+                case Rook -> AttackTables.rook(square, occupied);
+                default -> AttackTables.queen(square, occupied);
+            };
+        }
+        return attacks;
+    }
+
+    private int pieceOn(int square) {
+        for (int piece = 0; piece < squares.length; piece++) {
+            if (squares[piece] == square)
+                return piece;
+        }
+        return -1;
+    }
+
+    private static byte loss(int plies) {
+        return (byte) (-plies - 1);
+    }
+
+    /**
+     * makes all the tables, the endings a pawn promotes into first
+     *
+     * @return the tables by the ending ordinal
+     */
+    static byte[][] generateAll() {
+        byte[][] tables = new byte[Ending.values().length][];
+        for (Ending ending : Ending.values())
+            tables[ending.ordinal()] = new TablebaseGenerator(ending, ending.pawns ? tables : null).generate();
+        return tables;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "tablebases");
+        Files.createDirectories(directory);
+        byte[][] tables = new byte[Ending.values().length][];
+        for (Ending ending : Ending.values()) {
+            long start = System.nanoTime();
+            tables[ending.ordinal()] = new TablebaseGenerator(ending, ending.pawns ? tables : null).generate();
+            Files.write(directory.resolve(ending.fileName()), tables[ending.ordinal()]);
+            int longest = 0;
+            for (byte value : tables[ending.ordinal()])
+                longest = Math.max(longest, value);
+            System.out.printf("%s: %d positions, longest mate %d plies, %d ms%n", ending, tables[ending.ordinal()].length,
+                    longest, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * a growing list of ints, the waves of the generation hold millions of positions
+     */
+    private static class IntList {
+        private int[] items = new int[1024];
+        private int size;
+
+        void add(int item) {
+            if (size == items.length)
+                items = Arrays.copyOf(items, size * 2);
+            items[size++] = item;
+        }
+
+        int get(int i) {
+            return items[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
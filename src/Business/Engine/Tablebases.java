@@ -0,0 +1,200 @@
+package Business.Engine;
+
+import Business.Boards.Bitboards;
+import Business.Boards.TwoPlayerChessBoard;
+import Business.ChessPieces.PieceType;
+import Business.Color;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Endgame tablebases: the exact result of every position of a few endings with a lone king, with the number of plies to
+ * the mate, made offline by the {@link TablebaseGenerator}.
+ * Every ending is one file of a byte for every position, mapped to memory, so a probe is one read from the page cache.
+ * The index of a position is a perfect hash (no two positions share an index): the board is mirrored so the king of the
+ * strong side is in the a1-d4 quarter (only left to right when there are pawns, they can not be mirrored up and down),
+ * and then the squares of the kings and the pieces and the side to move are the digits of the index.
+ * The tables are made with the strong side white, a position of the black strong side is mirrored up and down first.
+ * Castling is not in the tables, so a board that can still castle is not probed.
+ * The value of a position (from the side to move): 0 is a draw, p > 0 is a win with a mate in p plies, and -p-1 is a loss
+ * with a mate in p plies (-1 is mated now)
+ */
+public class Tablebases {
+
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    /**
+     * the endings in the tables, by the pieces of the strong side beside its king
+     */
+    enum Ending {
+        KQK(PieceType.Queen), KRK(PieceType.Rook), KBNK(PieceType.Bishop, PieceType.Knight), KPK(PieceType.Pawn);
+
+        final PieceType[] pieces;
+        final boolean pawns;
+
+        Ending(PieceType... pieces) {
+            this.pieces = pieces;
+            this.pawns = pieces[0] == PieceType.Pawn;
+        }
+
+        /**
+         * @return the number of positions in the table, legal or not
+         */
+        int size() {
+            return (pawns ? 32 : 16) * 64 * (1 << 6 * pieces.length) * 2;
+        }
+
+        String fileName() {
+            return name() + ".tb";
+        }
+    }
+
+    private static Tablebases defaultTablebases;
+
+    private final ByteBuffer[] tables = new ByteBuffer[Ending.values().length]; // by the ending ordinal, null if missing
+
+    /**
+     * maps the tables in {@param directory}, the endings with no file are not probed
+     */
+    public Tablebases(Path directory) {
+        for (Ending ending : Ending.values()) {
+            Path path = directory.resolve(ending.fileName());
+            if (!Files.isRegularFile(path))
+                continue;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (channel.size() == ending.size())
+                    tables[ending.ordinal()] = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                // a table that can not be read is like a missing one
+            }
+        }
+    }
+
+    /**
+     * @param tables the tables by the ending ordinal, null for a missing ending
+     */
+    Tablebases(byte[][] tables) {
+        for (int i = 0; i < tables.length; i++)
+            this.tables[i] = tables[i] == null ? null : ByteBuffer.wrap(tables[i]);
+    }
+
+    /**
+     * @return the tables in the "tablebases" directory of the working directory, or in the "chess.tablebases" system property
+     */
+    public static synchronized Tablebases getDefault() {
+        if (defaultTablebases == null)
+            defaultTablebases = new Tablebases(Path.of(System.getProperty("chess.tablebases", "tablebases")));
+        return defaultTablebases;
+    }
+
+    /**
+     * @return the score of the position on {@param board} from the side to move, like a {@link Search} score: a mate in
+     * p plies is MATE - p, a draw is 0, and {@link #NOT_FOUND} if the position is not in the tables
+     */
+    public int probe(TwoPlayerChessBoard board) {
+        long occupied = board.occupied();
+        if (Long.bitCount(occupied) > 4 || Long.bitCount(occupied) < 3 || board.getCastlingRights() != 0)
+            return NOT_FOUND;
+
+        Color strong = Long.bitCount(board.occupancy(Color.White)) > 1 ? Color.White : Color.Black;
+        Color weak = strong == Color.White ? Color.Black : Color.White;
+        if (Long.bitCount(board.occupancy(weak)) != 1)
+            return NOT_FOUND;
+        Ending ending = endingOf(board, strong);
+        if (ending == null || tables[ending.ordinal()] == null)
+            return NOT_FOUND;
+
+        int colorFlip = strong == Color.White ? 0 : 56; // mirrors a black strong side up and down
+        int strongKing = Bitboards.firstSquare(board.pieces(strong, PieceType.King)) ^ colorFlip;
+        int flip = colorFlip ^ flip(ending, strongKing);
+        int index = kingIndex(ending, strongKing ^ flip(ending, strongKing));
+        index = index * 64 + (Bitboards.firstSquare(board.pieces(weak, PieceType.King)) ^ flip);
+        for (PieceType piece : ending.pieces)
+            index = index * 64 + (Bitboards.firstSquare(board.pieces(strong, piece)) ^ flip);
+        int value = probeIndex(ending, index * 2 + (board.getSideToMove() == weak ? 1 : 0));
+        return value == 0 ? 0 : value > 0 ? Search.MATE - value : -Search.MATE + (-value - 1);
+    }
+
+    /**
+     * @return true if there is a table for the position on {@param board}
+     */
+    public boolean covers(TwoPlayerChessBoard board) {
+        return probe(board) != NOT_FOUND;
+    }
+
+    /**
+     * @return the value at {@param index} in the table of {@param ending}, 0 if the table is missing
+     */
+    int probeIndex(Ending ending, int index) {
+        ByteBuffer table = tables[ending.ordinal()];
+        return table == null ? 0 : table.get(index);
+    }
+
+    private static Ending endingOf(TwoPlayerChessBoard board, Color strong) {
+        for (Ending ending : Ending.values()) {
+            int count = 1; // the king
+            boolean fits = true;
+            for (PieceType piece : ending.pieces) {
+                fits &= Long.bitCount(board.pieces(strong, piece)) == 1;
+                count++;
+            }
+            if (fits && Long.bitCount(board.occupancy(strong)) == count)
+                return ending;
+        }
+        return null;
+    }
+
+    /**
+     * the perfect hash of a position
+     *
+     * @param squares    the strong king, the weak king and the pieces of the ending in their order, the strong side moves
+     *                   to row 0 (like white)
+     * @param weakToMove true if the lone king is to move
+     * @return the index of the position in the table of {@param ending}
+     */
+    static int index(Ending ending, int[] squares, boolean weakToMove) {
+        int flip = flip(ending, squares[0]);
+        int index = kingIndex(ending, squares[0] ^ flip);
+        for (int i = 1; i < squares.length; i++)
+            index = index * 64 + (squares[i] ^ flip);
+        return index * 2 + (weakToMove ? 1 : 0);
+    }
+
+    /**
+     * @return what to xor the squares with to bring {@param strongKing} to the a1-d4 quarter (to the a-d columns with pawns)
+     */
+    private static int flip(Ending ending, int strongKing) {
+        int flip = 0;
+        if (Bitboards.column(strongKing) > 3)
+            flip ^= 7; // left to right
+        if (!ending.pawns && Bitboards.row(strongKing) < 4)
+            flip ^= 56; // up and down
+        return flip;
+    }
+
+    private static int kingIndex(Ending ending, int king) {
+        return ending.pawns ? Bitboards.row(king) * 4 + Bitboards.column(king) : (Bitboards.row(king) - 4) * 4 + Bitboards.column(king);
+    }
+
+    /**
+     * the squares of a position from its {@param index}, the opposite of "index" for the positions it returns
+     *
+     * @param squares filled like the squares of "index"
+     * @return true if the weak king is to move
+     */
+    static boolean position(Ending ending, int index, int[] squares) {
+        boolean weakToMove = (index & 1) == 1;
+        index >>>= 1;
+        for (int i = squares.length - 1; i > 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        squares[0] = ending.pawns ? Bitboards.square(index / 4, index % 4) : Bitboards.square(index / 4 + 4, index % 4);
+        return weakToMove;
+    }
+}
@@ -0,0 +1,194 @@
+package Business.Engine;
+
+import Business.Boards.Move;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size table of results, keyed by the hash of the position ({@link Business.Boards.TwoPlayerChessBoard#hash()}),
+ * that can be shared by many threads without locks.
+ * The entries are kept in one long[], two longs for every entry: the key xor the data, and the data. A reader takes the
+ * entry only if the key it gets back by xor is the key it looks for, so an entry that was half written by another
+ * thread (the two longs are written one after the other) is just a miss, and no lock is needed.
+ * The entries are grouped in buckets of two, the index of the bucket is the low bits of the key (the number of buckets
+ * is a power of two). When a bucket is full, the entry of an old search or the entry with the smaller depth is replaced.
+ * The data of an entry:
+ * bits 0-47 the value of the user (the counts of perft, or a packed search result, see {@link #packSearchResult}),
+ * bits 48-55 the depth, bits 56-63 the age (the search the entry was written in, see {@link #newSearch()})
+ */
+public class TranspositionTable {
+
+    public static final int BOUND_EXACT = 0;
+    public static final int BOUND_LOWER = 1; // the score is at least the value (a beta cutoff)
+    public static final int BOUND_UPPER = 2; // the score is at most the value (no move got to alpha)
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_ENTRIES = 2;
+    private static final int BUCKET_LONGS = ENTRY_LONGS * BUCKET_ENTRIES;
+    private static final long VALUE_MASK = (1L << 48) - 1;
+
+    private final long[] table;
+    private final long bucketMask;
+    private volatile int age;
+
+    // LongAdder keeps a cell per thread under contention, so the threads do not fight on one counter
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * @param megabytes the size of the table, it is rounded down to a power of two number of buckets (and at least one bucket)
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = Math.max(1, ((long) megabytes << 20) / (BUCKET_LONGS * Long.BYTES));
+        buckets = Long.highestOneBit(buckets);
+        if (buckets * BUCKET_LONGS > Integer.MAX_VALUE - 8)
+            buckets = Integer.highestOneBit((Integer.MAX_VALUE - 8) / BUCKET_LONGS);
+        table = new long[(int) (buckets * BUCKET_LONGS)];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * @return the data of the entry of {@param key}, or 0 if there is none (data is never 0, the depth is at least 1 when stored)
+     */
+    public long probe(long key) {
+        int bucket = bucketIndex(key);
+        for (int entry = bucket; entry < bucket + BUCKET_LONGS; entry += ENTRY_LONGS) {
+            long data = table[entry + 1];
+            if ((table[entry] ^ data) == key && data != 0) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+        return 0;
+    }
+
+    /**
+     * stores {@param value} for {@param key}, an entry of the same key is always replaced, otherwise the entry of an older
+     * search or the one with the smaller depth is replaced
+     *
+     * @param value at most 48 bits
+     * @param depth 1 to 255, the depth of the tree the value was calculated for
+     */
+    public void store(long key, long value, int depth) {
+        int bucket = bucketIndex(key);
+        int currentAge = age;
+        int replace = bucket;
+        int replaceWorth = Integer.MAX_VALUE;
+        for (int entry = bucket; entry < bucket + BUCKET_LONGS; entry += ENTRY_LONGS) {
+            long data = table[entry + 1];
+            if (data == 0 || (table[entry] ^ data) == key) {
+                replace = entry;
+                replaceWorth = Integer.MIN_VALUE;
+                break;
+            }
+            // an entry of an old search is worth less than any entry of this search
+            int worth = depth(data) - (age(data) == currentAge ? 0 : 256);
+            if (worth < replaceWorth) {
+                replace = entry;
+                replaceWorth = worth;
+            }
+        }
+        long old = table[replace + 1];
+        if (old != 0 && (table[replace] ^ old) != key)
+            collisions.increment();
+
+        long data = (value & VALUE_MASK) | (long) (Math.max(1, Math.min(depth, 255))) << 48 | (long) currentAge << 56;
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    /**
+     * should be called before every new search, the entries of the older searches are replaced first
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    private int bucketIndex(long key) {
+        return (int) (key & bucketMask) * BUCKET_LONGS;
+    }
+
+    public static long value(long data) {
+        return data & VALUE_MASK;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 48) & 0xFF;
+    }
+
+    public static int age(long data) {
+        return (int) (data >>> 56);
+    }
+
+    /**
+     * packs a search result into a value for "store"
+     *
+     * @param move  the best move, its flags are not kept
+     * @param score between -32768 and 32767
+     * @param bound {@link #BOUND_EXACT}, {@link #BOUND_LOWER} or {@link #BOUND_UPPER}
+     */
+    public static long packSearchResult(int move, int score, int bound) {
+        return (Move.withoutFlags(move) & 0xFFFFL) | (score & 0xFFFFL) << 16 | (long) bound << 32;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 32) & 3;
+    }
+
+    /**
+     * @return the number of entries the table can hold
+     */
+    public int capacity() {
+        return table.length / ENTRY_LONGS;
+    }
+
+    /**
+     * @return how many of the first 1000 entries are used by the current search, in thousandths
+     */
+    public int usage() {
+        int sample = Math.min(1000, capacity()), used = 0;
+        for (int entry = 0; entry < sample * ENTRY_LONGS; entry += ENTRY_LONGS) {
+            long data = table[entry + 1];
+            if (data != 0 && age(data) == age)
+                used++;
+        }
+        return used * 1000 / sample;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return how many times an entry of another position was replaced
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public String toString() {
+        return String.format("%d entries, %d hits, %d misses, %d collisions, %d/1000 used", capacity(), getHits(), getMisses(), getCollisions(), usage());
+    }
+}
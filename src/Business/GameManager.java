@@ -1,10 +1,15 @@
 package Business;
 
+import Business.Boards.Bitboards;
+import Business.Boards.LegalMoveCache;
+import Business.Boards.Move;
+import Business.Boards.MoveList;
 import Business.Boards.TwoPlayerChessBoard;
 import Business.ChessPieces.ChessPiece;
+import Business.Engine.Tablebases;
 import srv.api.UserMessageReceiver;
 
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,6 +21,10 @@ public class GameManager {
     private Place src;
     private Color colorTurn;
     private ChessPiece chosenPiece;
+    private final MoveList movingOptions = new MoveList(); // the moves of the chosen piece, taken from "turnMoves" on the first click
+    private final MoveList turnMoves = new MoveList(); // all the legal moves of the color to move, see "prepareTurn"
+    private final long[] turnDestinations = new long[64]; // by the square, the destinations of the piece on it in "turnMoves"
+    private boolean finished; // after a mate or a draw no click is taken
     private final Map<UserMessageReceiver,Color> userColorMap;
 
 
@@ -25,9 +34,10 @@ public class GameManager {
         this.colorTurn = Color.White;
         userColorMap = new HashMap<UserMessageReceiver,Color>();
         userColorMap.put(whiteMassageReceiver,Color.White);
+        prepareTurn();
     }
 
-    public void start(UserMessageReceiver blackMassageReceiver){
+    public synchronized void start(UserMessageReceiver blackMassageReceiver){
         userColorMap.put(blackMassageReceiver,Color.Black);
         sendColorToThePlayers();
         sendTheBoardToThePlayers();
@@ -52,13 +62,11 @@ public class GameManager {
      * @param chosenPlace the place that had been clicked
      * @return a collection of places to show the user where the piece he chose in the first click can move
      */
-    public void userClick(Place chosenPlace, UserMessageReceiver userMessageReceiver) {
-
-        synchronized (this) {
-            if (userColorMap.get(userMessageReceiver) != colorTurn)
-                return;
-        }
-
+    public synchronized void userClick(Place chosenPlace, UserMessageReceiver userMessageReceiver) {
+        // the whole click is done under the lock of the game: a bot clicks from its own thread, and its clicks must wait
+        // until the click that passed the turn to it is over
+        if (finished || userColorMap.get(userMessageReceiver) != colorTurn)
+            return;
 
         if (chosenPlace == src) { // double click to cancel
             userMessageReceiver.receiveBoardAsString(board.toString());
@@ -80,52 +88,90 @@ public class GameManager {
 
 
 
+    /**
+     * plays {@param move} (see {@link Move}) for the player of {@param userMessageReceiver}, if it is its turn and the move
+     * is legal. The move is found in the moves of the turn by its squares and its promotion, so a player that picked its
+     * move itself (like a bot) gets the promotion it picked, the clicks always promote to a queen
+     */
+    public synchronized void userMove(int move, UserMessageReceiver userMessageReceiver) {
+        if (finished || userColorMap.get(userMessageReceiver) != colorTurn)
+            return;
+        resetVariables(); // a move drops a piece that was chosen with a click
+        int legalMove = turnMoves.find(Move.from(move), Move.to(move), Move.promotion(move));
+        if (legalMove != Move.NONE && Move.promotion(legalMove) == Move.promotion(move))
+            playMove(legalMove);
+    }
+
     private void handleFirstClick(Place chosenPlace,UserMessageReceiver userMessageReceiver) {
         src = chosenPlace;
         chosenPiece = board.getPieceInPlace(chosenPlace);
         if (chosenPiece == null || chosenPiece.getColor() != colorTurn) {
             resetVariables();
         }
+        else if (turnDestinations[src.getSquare()] == 0) {
+            resetVariables();
+        }
         else{
-            short sh = 3;
-            Collection<Place> movingOptions  =board.calculateMovingOptions(src);
-            if (!movingOptions.isEmpty())
-                userMessageReceiver.receiveCollection(movingOptions,sh);
-            else
-                resetVariables();
+            for (int i = 0; i < turnMoves.size(); i++) {
+                if (Move.from(turnMoves.get(i)) == src.getSquare())
+                    movingOptions.add(turnMoves.get(i));
+            }
+            userMessageReceiver.receiveMoves(movingOptions);
         }
     }
 
     private void handleSecondClick(Place chosenPlace,UserMessageReceiver userMessageReceiver) {
-        if (board.isLegalMove(src, chosenPlace, colorTurn)) {
-            board.moveAPiece(src, chosenPlace, () -> 'Q'); // that's a big bug, but I do not perfect with the Gui and I do not want to invest a lot of time on it.
-            sendTheBoardToThePlayers();
-            synchronized (this){
-                colorTurn = Color.getOpponent(colorTurn, 2).get(0);
-
-                if (board.isInCheckMate(colorTurn)) {
-                    for (UserMessageReceiver receiver :
-                            userColorMap.keySet()) {
-                        receiver.receiveMsg(Color.getOpponent(colorTurn, 2).get(0) + " has won");
-                        receiver.gameFinishCallback();
-                    }
-
-                } else if (board.isInPat(colorTurn)) {
-                    for (UserMessageReceiver receiver :
-                            userColorMap.keySet()) {
-                        receiver.receiveMsg("its a tie!");
-                        receiver.gameFinishCallback();
-                    }
-                }
+        int move = Move.NONE;
+        if (Bitboards.contains(turnDestinations[src.getSquare()], chosenPlace.getSquare()))
+            move = movingOptions.find(src.getSquare(), chosenPlace.getSquare(), Move.QUEEN); // the clicks always promote to a queen, a player that picks its promotion plays with "userMove"
+        resetVariables();
+        if (move != Move.NONE)
+            playMove(move);
+    }
+
+    /**
+     * plays a legal move of the turn and passes the turn, called under the lock of the game
+     */
+    private void playMove(int move) {
+        board.moveAPiece(move);
+        // everything of this move is done before the turn is passed and the board is sent, a bot can answer right away
+        colorTurn = Color.getOpponent(colorTurn, 2).get(0);
+        prepareTurn();
+        GameStatus status = board.status(colorTurn, !turnMoves.isEmpty());
+        finished = status.isFinished() || Tablebases.getDefault().probe(board) == 0; // no one can win the ending
+        sendTheBoardToThePlayers();
+        if (status == GameStatus.Checkmate) {
+            for (UserMessageReceiver receiver :
+                    userColorMap.keySet()) {
+                receiver.receiveMsg(Color.getOpponent(colorTurn, 2).get(0) + " has won");
+                receiver.gameFinishCallback();
             }
 
+        } else if (finished) {
+            for (UserMessageReceiver receiver :
+                    userColorMap.keySet()) {
+                receiver.receiveMsg("its a tie!");
+                receiver.gameFinishCallback();
+            }
         }
-            resetVariables();
+    }
+
+    /**
+     * called under the lock of the game, with the turn that starts: gets all the legal moves of the color to move once, from the shared {@link LegalMoveCache}, and keeps the
+     * destinations of every piece, so the clicks and the end of the game are answered from them
+     */
+    private void prepareTurn() {
+        turnMoves.clear();
+        LegalMoveCache.getDefault().legalMoves(board, turnMoves);
+        Arrays.fill(turnDestinations, Bitboards.EMPTY);
+        for (int i = 0; i < turnMoves.size(); i++)
+            turnDestinations[Move.from(turnMoves.get(i))] |= Bitboards.bit(Move.to(turnMoves.get(i)));
     }
 
     private void resetVariables() {
         this.src = null;
         this.chosenPiece = null;
+        this.movingOptions.clear();
     }
 
 
@@ -0,0 +1,14 @@
+package Business;
+
+/**
+ * where a game stands, for the color to move
+ */
+public enum GameStatus { Ongoing, Checkmate, Stalemate, InsufficientMaterial, ThreefoldRepetition, FiftyMoves;
+
+    /**
+     * @return true if the game is over
+     */
+    public boolean isFinished() {
+        return this != Ongoing;
+    }
+}
@@ -9,6 +9,8 @@ public class  MessagesLibrary {
 
     public static final String ILLEGAL_MOVE = "Illegal move";
     public static final String ILLEGAL_STRING = "The string is not in the right format";
+    public static final String ILLEGAL_BOOK = "The opening book is not in the right format";
+    public static final String ILLEGAL_FEN = "The FEN is not in the right format";
 
 //
 //    public static final String WIN_MASSAGE = "%s You Have won!";
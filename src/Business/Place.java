@@ -5,31 +5,77 @@ import java.util.*;
 
 /**
  * this class represent place on the board
+ * There is one Place for every square (0 - 63, row * 8 + column), and the places around a place in every direction are
+ * calculated once, one after the other in a single flat array, with the offset and the length of every ray by
+ * "direction * 64 + square". The lists of the rays and the sets of the knight jumps are made once too, so going around
+ * the board never makes new objects (only "getPath" makes its set) and never throws when it gets to the edge
  */
 public class Place {
 
-    public enum Direction {Up, Down, Left, Right, LeftUpDiagonal, LeftDownDiagonal, RightUpDiagonal, RightDownDiagonal, Knight}
+    /**
+     * None is the direction between two places that are not on the same line (or a knight jump), or are the same place
+     */
+    public enum Direction {Up, Down, Left, Right, LeftUpDiagonal, LeftDownDiagonal, RightUpDiagonal, RightDownDiagonal, Knight, None}
 
     // if the player give up we will send that
     public static final Place GIVE_UP_PLACE = new Place(-1, -1);
 
-    private static final List<List<Place>> places = new ArrayList<>();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // every direction is a {row, column} step, by the direction ordinal, up to RightDownDiagonal
+    private static final int[][] STEPS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {1, -1}, {-1, 1}, {1, 1}};
+    private static final int[][] KNIGHT_JUMPS = {{-2, 1}, {-1, 2}, {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}};
+
+    private static final Place[] places = new Place[64];
+    private static final Place[] rayData; // all the rays, one after the other
+    private static final int[] rayOffsets = new int[DIRECTIONS.length * 64]; // [direction * 64 + square] where the ray starts in "rayData"
+    private static final int[] rayLengths = new int[DIRECTIONS.length * 64]; // [direction * 64 + square]
+    @SuppressWarnings("unchecked")
+    private static final List<Place>[] rayLists = new List[DIRECTIONS.length * 64]; // [direction * 64 + square] an unmodifiable view of the ray, for "getRay"
+    @SuppressWarnings("unchecked")
+    private static final Set<Place>[] knightJumps = new Set[64]; // [square] for "calculateKnightJumpOptionFromSrc"
+    private static final Direction[][] directions = new Direction[64][64]; // [start][finish]
 
     static {
-        for (int i = 0; i < 8; i++) {
-            places.add(new ArrayList<>());
-            for (int j = 0; j < 8; j++) {
-                places.get(i).add(new Place(i, j));
+        for (int square = 0; square < 64; square++)
+            places[square] = new Place(square / 8, square % 8);
+
+        List<Place> data = new ArrayList<>();
+        for (Direction direction : DIRECTIONS) {
+            for (Place place : places) {
+                int entry = direction.ordinal() * 64 + place.square;
+                rayOffsets[entry] = data.size();
+                calculateRay(place, direction, data);
+                rayLengths[entry] = data.size() - rayOffsets[entry];
+            }
+        }
+        rayData = data.toArray(new Place[0]);
+
+        List<Place> all = Collections.unmodifiableList(Arrays.asList(rayData));
+        for (int entry = 0; entry < rayLists.length; entry++)
+            rayLists[entry] = all.subList(rayOffsets[entry], rayOffsets[entry] + rayLengths[entry]);
+        for (Place place : places)
+            knightJumps[place.square] = Set.copyOf(getRay(place, Direction.Knight));
+
+        for (Direction[] row : directions)
+            Arrays.fill(row, Direction.None);
+        for (Direction direction : DIRECTIONS) {
+            for (Place start : places) {
+                int entry = direction.ordinal() * 64 + start.square;
+                for (int i = rayOffsets[entry]; i < rayOffsets[entry] + rayLengths[entry]; i++)
+                    directions[start.square][rayData[i].square] = direction;
             }
         }
     }
 
     private final int row;
     private final int column;
+    private final int square;
 
     private Place(int row, int column) {
         this.row = row;
         this.column = column;
+        this.square = row * 8 + column;
     }
 
     public int getRow() {
@@ -40,67 +86,44 @@ public class Place {
         return column;
     }
 
+    /**
+     * @return the square number of the place, row * 8 + column
+     */
+    public int getSquare() {
+        return square;
+    }
+
     public Place moveRight() {
-        return getPlace(this.row, column + 1);
+        return move(Direction.Right);
     }
 
     public Place moveLeft() {
-        return getPlace(this.row, column - 1);
+        return move(Direction.Left);
     }
 
     public Place moveUp() {
-        return getPlace(row - 1, this.column);
+        return move(Direction.Up);
     }
 
     public Place moveDown() {
-        return getPlace(row + 1, this.column);
+        return move(Direction.Down);
     }
 
+    /**
+     * @return the next place in {@param direction}, null if it is out of the board
+     */
     public Place move(Direction direction) {
-        switch (direction) {
-
-            case Up:
-                return moveUp();
-
-            case Down:
-                return moveDown();
-
-            case Left:
-                return moveLeft();
-
-            case Right:
-                return moveRight();
-
-            case LeftUpDiagonal: {
-                return moveLeft().moveUp();
-            }
-            case LeftDownDiagonal: {
-                return moveLeft().moveDown();
-            }
-            case RightUpDiagonal: {
-                return moveRight().moveUp();
-            }
-            case RightDownDiagonal: {
-                return moveRight().moveDown();
-            }
-            default:
-                throw new IllegalArgumentException(MessagesLibrary.ILLEGAL_MOVE);
-        }
+        if (direction == Direction.Knight || direction == Direction.None)
+            throw new IllegalArgumentException(MessagesLibrary.ILLEGAL_MOVE);
+        int entry = direction.ordinal() * 64 + square;
+        return rayLengths[entry] == 0 ? null : rayData[rayOffsets[entry]];
     }
 
+    /**
+     * @return the places a knight jumps to from this place, the set is shared and cannot be changed
+     */
     public Set<Place> calculateKnightJumpOptionFromSrc() {
-        int[] rowToAdd ={-2,-1,1,2,2,1,-1,-2};
-        int[] columnToAdd ={1,2,2,1,-1,-2,-2,-1};
-        Set<Place> output = new HashSet<>();
-        for (int i = 0; i < 8; i++) {
-            try{
-                output.add(getPlace(this.row +rowToAdd[i],this.column+columnToAdd[i]));
-            }
-            catch (Exception ignored){
-                // out of
-            }
-        }
-        return output;
+        return knightJumps[square];
     }
 
     @Override
@@ -110,6 +133,11 @@ public class Place {
         return this.column == other.column & this.row == other.row;
     }
 
+    @Override
+    public int hashCode() {
+        return square;
+    }
+
     public static int calculateRowDistance(Place place1, Place place2) {
         return Math.abs(place1.row - place2.row);
     }
@@ -118,9 +146,48 @@ public class Place {
         return Math.abs(place1.column - place2.column);
     }
 
+    public static boolean isInBoard(int row, int column) {
+        return row >= 0 && row < 8 && column >= 0 && column < 8;
+    }
+
+    /**
+     * @return the place in {@param row} and {@param column}, null if it is out of the board
+     */
     public static Place getPlace(int row, int column) {
+        return isInBoard(row, column) ? places[row * 8 + column] : null;
+    }
 
-        return places.get(row).get(column);
+    /**
+     * @return the place of {@param square} (row * 8 + column)
+     */
+    public static Place getPlace(int square) {
+        return places[square];
+    }
+
+    /**
+     * @return the places from {@param start} (not including it) to the edge of the board in {@param direction}, the
+     * jumps for a knight, nothing for None. The list is shared and cannot be changed
+     */
+    public static List<Place> getRay(Place start, Direction direction) {
+        return rayLists[direction.ordinal() * 64 + start.square];
+    }
+
+    /**
+     * adds the places of the ray of {@param start} in {@param direction} to {@param ray}
+     */
+    private static void calculateRay(Place start, Direction direction, List<Place> ray) {
+        if (direction == Direction.Knight) {
+            for (int[] jump : KNIGHT_JUMPS) {
+                Place place = getPlace(start.row + jump[0], start.column + jump[1]);
+                if (place != null)
+                    ray.add(place);
+            }
+        } else if (direction != Direction.None) {
+            int[] step = STEPS[direction.ordinal()];
+            for (Place place = getPlace(start.row + step[0], start.column + step[1]); place != null;
+                 place = getPlace(place.row + step[0], place.column + step[1]))
+                ray.add(place);
+        }
     }
 
 
@@ -130,14 +197,16 @@ public class Place {
      * @return all the places between start and end, includes start, exclude end!
      */
     public static Set<Place> getPath(Place start, Place end) {
-        Place next = start;
         Set<Place> output = new HashSet<>();
         Direction direction = calculateDirection(start, end);
-        if (direction != Direction.Knight)
-            while (!next.equals(end)) {
+        if (direction != Direction.Knight) {
+            output.add(start);
+            for (Place next : getRay(start, direction)) {
+                if (next.equals(end))
+                    break;
                 output.add(next);
-                next = next.move(direction);
             }
+        }
         return output;
     }
 
@@ -152,24 +221,18 @@ public class Place {
     public static Direction calculateDirection(Place start, Place finish) throws RuntimeException {
         if (start.equals(finish))
             throw new RuntimeException("please choose two different locations");
+        Direction direction = findDirection(start, finish);
+        if (direction == Direction.None)
+            throw new RuntimeException(MessagesLibrary.ILLEGAL_MOVE);
+        return direction;
+    }
 
-        if (start.getRow() == finish.getRow())
-            return start.getColumn() < finish.getColumn() ? Direction.Right : Direction.Left;
-
-        else if (start.getColumn() == finish.getColumn())
-            return start.getRow() < finish.getRow() ? Direction.Down : Direction.Up;
-
-        else if (start.getRow() - start.getColumn() == finish.getRow() - finish.getColumn())
-            return start.getRow() < finish.getRow() ? Direction.RightDownDiagonal : Direction.LeftUpDiagonal;
-
-        else if (start.getRow() + start.getColumn() == finish.getRow() + finish.getColumn()) {
-            return start.getRow() < finish.getRow() ? Direction.LeftDownDiagonal : Direction.RightUpDiagonal;
-        } else {
-            int rowDifferent = Place.calculateRowDistance(start, finish);
-            int columnDifferent = Place.calculateColumnDistance(start, finish);
-            if (rowDifferent < 3 && columnDifferent < 3 && rowDifferent != columnDifferent)
-                return Direction.Knight;
-        }
-        throw new RuntimeException(MessagesLibrary.ILLEGAL_MOVE);
+    /**
+     * like "calculateDirection", without the exceptions
+     *
+     * @return the direction of the move, None if it is not a line or a knight jump
+     */
+    public static Direction findDirection(Place start, Place finish) {
+        return directions[start.square][finish.square];
     }
 }
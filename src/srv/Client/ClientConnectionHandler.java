@@ -130,7 +130,14 @@ public class ClientConnectionHandler<T> implements ConnectionHandler<T> {
     }
 
     public void start() throws InterruptedException {
-        send((T) new StringMessage("Start"));
+        start("Start");
+    }
+
+    /**
+     * @param startMessage "Start" to play against another user, "StartBot" to play against the computer
+     */
+    public void start(String startMessage) throws InterruptedException {
+        send((T) new StringMessage(startMessage));
         Thread thread1= new Thread(this::continueRead);
         thread1.start();
         thread1.join();
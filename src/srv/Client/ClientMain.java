@@ -15,7 +15,7 @@ public class ClientMain {
         int port = 7777;
         try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(host,port))){
             ClientConnectionHandler<Message> clientConnectionHandler = new ClientConnectionHandler<Message>(new MessageEncoderDecoder(),new ClientProtocol(),channel,generateRandom(),new ConnectionsImp<Message>());
-            clientConnectionHandler.start();
+            clientConnectionHandler.start(args.length > 0 && args[0].equals("bot") ? "StartBot" : "Start");
 
 
         } catch (IOException e) {
@@ -1,12 +1,17 @@
 package srv.Client;
 
+import Business.Boards.Move;
+import Business.Boards.MoveList;
+import Business.Place;
 import Presentation.ClickListener;
 import Presentation.TableGui;
 import srv.api.Connections;
 import srv.api.Messages.*;
 import srv.api.Protocol;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static Business.Color.Black;
 
@@ -39,6 +44,16 @@ public class ClientProtocol implements Protocol<Message> {
                 tableGui.reprint();
                 break;
 
+            //7) MovesMessage, the GUI shows where the piece can go
+            case 7:
+                MoveList moves = ((MovesMessage) message).getMoves();
+                List<Place> destinations = new ArrayList<>();
+                for (int i = 0; i < moves.size(); i++)
+                    destinations.add(Place.getPlace(Move.to(moves.get(i))));
+                tableGui.setPossibleDestinationsForChosenPiece(destinations);
+                tableGui.reprint();
+                break;
+
             // Board change look message
             case 4:
                 BoardContentMessage boardContentMessage = (BoardContentMessage) message;
@@ -1,5 +1,6 @@
 package srv.api;
 
+import Business.Boards.MoveList;
 import Business.Place;
 import srv.api.Messages.*;
 
@@ -32,6 +33,8 @@ public class MessageEncoderDecoder implements MessageEncoderDecoderInterface<Mes
                     return new FinishGameMessage();
                 case 6:
                     return new ColorMessage(tmp);
+                case 7:
+                    return new MovesMessage(tmp);
             }
         } else {
             if (lenOpcode < 2) {
@@ -92,6 +95,17 @@ public class MessageEncoderDecoder implements MessageEncoderDecoderInterface<Mes
                 ColorMessage colorMessage = (ColorMessage) message;
                 content = colorMessage.getColor().toString().getBytes();
                 break;
+
+            case 7: // moves message
+                MoveList moves = ((MovesMessage) message).getMoves();
+                StringBuilder movesBuilder = new StringBuilder();
+                for (int i = 0; i < moves.size(); i++) {
+                    if (i > 0)
+                        movesBuilder.append(' ');
+                    movesBuilder.append(moves.get(i));
+                }
+                content = movesBuilder.toString().getBytes();
+                break;
             default:
                 content = new byte[0];
 
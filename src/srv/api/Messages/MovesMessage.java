@@ -0,0 +1,48 @@
+package srv.api.Messages;
+
+import Business.Boards.MoveList;
+
+import java.util.List;
+
+/**
+ * the moves a chosen piece can make, as {@link Business.Boards.Move} ints written in decimal and separated by spaces
+ * (the bytes of an int could be the ';' that ends a message)
+ */
+public class MovesMessage extends Message {
+    private static final short OPCODE = 7;
+    private final MoveList moves;
+
+    public MovesMessage(List<Byte> bytes) {
+        super(OPCODE);
+        moves = new MoveList();
+        int move = 0;
+        boolean inNumber = false;
+        for (Byte aByte : bytes) {
+            char c = (char) aByte.shortValue();
+            if (c >= '0' && c <= '9') {
+                move = move * 10 + c - '0';
+                inNumber = true;
+            } else if (inNumber) {
+                moves.add(move);
+                move = 0;
+                inNumber = false;
+            }
+        }
+        if (inNumber)
+            moves.add(move);
+    }
+
+    /**
+     * @param moves copied, the list can be used again after the message is made
+     */
+    public MovesMessage(MoveList moves) {
+        super(OPCODE);
+        this.moves = new MoveList(Math.max(1, moves.size()));
+        for (int i = 0; i < moves.size(); i++)
+            this.moves.add(moves.get(i));
+    }
+
+    public MoveList getMoves() {
+        return moves;
+    }
+}
@@ -1,5 +1,6 @@
 package srv.api;
 
+import Business.Boards.MoveList;
 import Business.Color;
 import Business.Controllers.BoardController;
 import Business.GameManager;
@@ -49,6 +50,8 @@ public class ServerProtocol implements Protocol<Message>, UserMessageReceiver {
                 StringMessage message1 = (StringMessage) message;
                 if (message1.getMsg().equals("Start")) {
                     gameManager = gameManagerSupplier.get();
+                } else if (message1.getMsg().equals("StartBot")) {
+                    gameManager = boardController.startBotGame(this);
                 }
                 break;
         }
@@ -66,6 +69,11 @@ public class ServerProtocol implements Protocol<Message>, UserMessageReceiver {
             connections.send(handlerConnectionId, new PlacesMessage((Collection<Place>)collection));
     }
 
+    @Override
+    public void receiveMoves(MoveList moves) {
+        connections.send(handlerConnectionId, new MovesMessage(moves));
+    }
+
     @Override
     public void receiveMsg(String msg) {
         connections.send(handlerConnectionId, new StringMessage(msg));
@@ -1,5 +1,6 @@
 package srv.api;
 
+import Business.Boards.MoveList;
 import Business.Color;
 
 import java.util.Collection;
@@ -7,6 +8,11 @@ import java.util.Collection;
 public interface UserMessageReceiver {
     <K> void receiveCollection(Collection<K> calculateMovingOptions,short opcode);
 
+    /**
+     * @param moves the moves of the chosen piece, the list is used again after the call
+     */
+    void receiveMoves(MoveList moves);
+
     void receiveMsg(String s);
 
     void receiveBoardAsString(String boardString);